@@ -0,0 +1,49 @@
+// Load test comparing platform-thread and virtual-thread request handling.
+//
+// Start the service twice, once with VIRTUAL_THREADS_ENABLED=false and once with
+// VIRTUAL_THREADS_ENABLED=true (same DB_POOL_SIZE), then run against each:
+//
+//   k6 run -e BASE_URL=http://localhost:8082 -e TOKEN=<jwt> load/products-load.js
+//
+// Compare http_reqs (throughput) and http_req_duration percentiles in the summaries.
+
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8082';
+const HEADERS = { headers: { Authorization: `Bearer ${__ENV.TOKEN}`, 'Content-Type': 'application/json' } };
+
+export const options = {
+    scenarios: {
+        catalog: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '30s', target: 200 },
+                { duration: '30s', target: 1000 },
+                { duration: '2m', target: 1000 },
+                { duration: '30s', target: 0 },
+            ],
+        },
+    },
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+    },
+};
+
+export default function () {
+    const page = http.get(`${BASE_URL}/products?limit=50`, HEADERS);
+    check(page, { 'page ok': (r) => r.status === 200 });
+
+    const items = page.status === 200 ? page.json('items') : [];
+    if (items.length > 0) {
+        const product = items[Math.floor(Math.random() * items.length)];
+
+        const detail = http.get(`${BASE_URL}/products/${product.id}`, HEADERS);
+        check(detail, { 'detail ok': (r) => r.status === 200 });
+
+        const consume = http.post(`${BASE_URL}/products/stock/consume`,
+            JSON.stringify([{ productId: product.id, quantity: 1 }]), HEADERS);
+        check(consume, { 'consume ok': (r) => r.status === 200 });
+    }
+}
@@ -0,0 +1,111 @@
+package com.frcalderon.products.benchmark;
+
+import com.frcalderon.products.controller.dto.ManageProductsRequest;
+import com.frcalderon.products.model.Ingredient;
+import com.frcalderon.products.model.Product;
+import com.frcalderon.products.model.ProductIngredient;
+import com.frcalderon.products.model.ProductSearchDocument;
+import com.frcalderon.products.model.RecipeLine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic in-memory catalogs shared by the benchmarks, so runs are comparable across
+ * commits without a database.
+ */
+final class CatalogFixtures {
+
+    static final int INGREDIENTS = 1_000;
+
+    static final int LINES_PER_PRODUCT = 8;
+
+    static final String[] PRODUCT_KINDS = {"Tarta", "Bizcocho", "Galleta", "Croissant", "Magdalena", "Brownie", "Cheesecake", "Ensaimada", "Palmera", "Napolitana"};
+
+    static final String[] FLAVOURS = {"limón", "chocolate", "fresa", "plátano", "avellana", "queso", "canela", "café", "almendra", "turrón", "coco", "frambuesa"};
+
+    private CatalogFixtures() {
+    }
+
+    static List<Ingredient> ingredients() {
+        List<Ingredient> ingredients = new ArrayList<>(INGREDIENTS);
+        for (long id = 1; id <= INGREDIENTS; id++) {
+            ingredients.add(Ingredient.builder()
+                    .id(id)
+                    .name("Ingredient " + id)
+                    .units("kg")
+                    .stock(1_000_000.0)
+                    .build());
+        }
+        return ingredients;
+    }
+
+    static List<Product> products(int count) {
+        List<Ingredient> ingredients = ingredients();
+        SplittableRandom random = new SplittableRandom(42);
+        List<Product> products = new ArrayList<>(count);
+
+        for (long id = 1; id <= count; id++) {
+            Product product = Product.builder()
+                    .id(id)
+                    .name("Product " + id)
+                    .description("Benchmark product " + id)
+                    .price(4.5)
+                    .build();
+
+            List<ProductIngredient> lines = new ArrayList<>(LINES_PER_PRODUCT);
+            for (int line = 0; line < LINES_PER_PRODUCT; line++) {
+                lines.add(ProductIngredient.builder()
+                        .id(id * LINES_PER_PRODUCT + line)
+                        .product(product)
+                        .ingredient(ingredients.get(random.nextInt(INGREDIENTS)))
+                        .quantity(0.25 + random.nextInt(20) * 0.25)
+                        .build());
+            }
+            product.setIngredients(lines);
+            products.add(product);
+        }
+        return products;
+    }
+
+    static List<ProductSearchDocument> searchDocuments(int count) {
+        SplittableRandom random = new SplittableRandom(42);
+        List<ProductSearchDocument> documents = new ArrayList<>(count);
+
+        for (long id = 1; id <= count; id++) {
+            String kind = PRODUCT_KINDS[random.nextInt(PRODUCT_KINDS.length)];
+            String flavour = FLAVOURS[random.nextInt(FLAVOURS.length)];
+            String topping = FLAVOURS[random.nextInt(FLAVOURS.length)];
+            documents.add(new ProductSearchDocument(
+                    id,
+                    kind + " de " + flavour + " " + id,
+                    kind + " artesanal de " + flavour + " con cobertura de " + topping,
+                    4.5
+            ));
+        }
+        return documents;
+    }
+
+    static List<RecipeLine> recipeLines(List<Product> products) {
+        List<RecipeLine> recipeLines = new ArrayList<>(products.size() * LINES_PER_PRODUCT);
+        for (Product product : products) {
+            for (ProductIngredient line : product.getIngredients()) {
+                recipeLines.add(new RecipeLine(product.getId(), line.getIngredient().getId(), line.getQuantity()));
+            }
+        }
+        return recipeLines;
+    }
+
+    static List<ManageProductsRequest> order(int catalogSize, int orderLines) {
+        SplittableRandom random = new SplittableRandom(7);
+        List<ManageProductsRequest> order = new ArrayList<>(orderLines);
+        for (int line = 0; line < orderLines; line++) {
+            order.add(ManageProductsRequest.builder()
+                    .productId(1L + random.nextInt(catalogSize))
+                    .quantity(1 + random.nextInt(5))
+                    .build());
+        }
+        return order;
+    }
+}
@@ -0,0 +1,88 @@
+package com.frcalderon.products.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.frcalderon.products.controller.dto.IngredientResponse;
+import com.frcalderon.products.controller.dto.ProductResponse;
+import com.frcalderon.products.model.Ingredient;
+import com.frcalderon.products.model.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogRenderingBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    public int catalogSize;
+
+    private List<Product> products;
+
+    private List<Ingredient> ingredients;
+
+    private List<ProductResponse> productResponses;
+
+    private ObjectWriter productWriter;
+
+    private ObjectWriter catalogWriter;
+
+    @Setup
+    public void setUp() {
+        products = CatalogFixtures.products(catalogSize);
+        ingredients = CatalogFixtures.ingredients();
+        productResponses = products.stream().map(ProductResponse::new).toList();
+        ObjectMapper objectMapper = new ObjectMapper();
+        productWriter = objectMapper.writerFor(ProductResponse.class);
+        catalogWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, ProductResponse.class));
+    }
+
+    @Benchmark
+    public List<ProductResponse> mapProductResponses() {
+        return products.stream().map(ProductResponse::new).toList();
+    }
+
+    @Benchmark
+    public List<IngredientResponse> mapIngredientResponses() {
+        return ingredients.stream().map(IngredientResponse::new).toList();
+    }
+
+    @Benchmark
+    public long renderProductsJson() throws IOException {
+        CountingOutputStream outputStream = new CountingOutputStream();
+        catalogWriter.writeValue(outputStream, productResponses);
+        return outputStream.count;
+    }
+
+    @Benchmark
+    public long renderProductsNdjson() throws IOException {
+        CountingOutputStream outputStream = new CountingOutputStream();
+        for (ProductResponse productResponse : productResponses) {
+            outputStream.write(productWriter.writeValueAsBytes(productResponse));
+            outputStream.write('\n');
+        }
+        return outputStream.count;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.frcalderon.products.benchmark;
+
+import com.frcalderon.products.repository.ProductRepository;
+import com.frcalderon.products.service.ProductSearchIndex;
+import com.frcalderon.products.service.ProductSearchResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductSearchBenchmark {
+
+    @Param({"1000", "100000"})
+    public int catalogSize;
+
+    @Param({"tarta", "choc", "bizcocho limon", "croissant de almendra con"})
+    public String query;
+
+    private ProductSearchIndex productSearchIndex;
+
+    @Setup
+    public void setUp() {
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findAllSearchDocuments()).thenReturn(CatalogFixtures.searchDocuments(catalogSize));
+
+        productSearchIndex = new ProductSearchIndex(productRepository);
+        productSearchIndex.reload();
+    }
+
+    @Benchmark
+    public List<ProductSearchResult> search() {
+        return productSearchIndex.search(query, 20);
+    }
+}
@@ -0,0 +1,108 @@
+package com.frcalderon.products.benchmark;
+
+import com.frcalderon.products.controller.dto.ManageProductsRequest;
+import com.frcalderon.products.model.Product;
+import com.frcalderon.products.model.RecipeLine;
+import com.frcalderon.products.outbox.OutboxWriter;
+import com.frcalderon.products.repository.IngredientRepository;
+import com.frcalderon.products.repository.ProductIngredientRepository;
+import com.frcalderon.products.repository.ProductRepository;
+import com.frcalderon.products.service.CatalogChangeService;
+import com.frcalderon.products.service.IngredientService;
+import com.frcalderon.products.service.ProductSearchIndex;
+import com.frcalderon.products.service.ProductService;
+import com.frcalderon.products.service.Recipe;
+import com.frcalderon.products.service.RecipeIndex;
+import com.frcalderon.products.service.StockDeltaAccumulator;
+import com.frcalderon.products.service.StockMovementRecorder;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StockAggregationBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    public int catalogSize;
+
+    @Param({"50"})
+    public int orderLines;
+
+    private List<ManageProductsRequest> order;
+
+    private List<Recipe> orderRecipes;
+
+    private ProductService productService;
+
+    @Setup
+    public void setUp() {
+        List<Product> products = CatalogFixtures.products(catalogSize);
+
+        ProductRepository productRepository = mock(ProductRepository.class);
+        ProductIngredientRepository productIngredientRepository = mock(ProductIngredientRepository.class);
+        when(productRepository.findAllIds()).thenReturn(products.stream().map(Product::getId).toList());
+        List<RecipeLine> recipeLines = CatalogFixtures.recipeLines(products);
+        when(productIngredientRepository.findAllRecipeLines()).thenReturn(recipeLines);
+
+        Map<Long, List<RecipeLine>> linesByProduct = recipeLines.stream().collect(Collectors.groupingBy(RecipeLine::getProductId));
+        when(productRepository.findIdsByIdIn(anyCollection())).thenAnswer(invocation -> List.copyOf(invocation.<Collection<Long>>getArgument(0)));
+        when(productIngredientRepository.findRecipeLinesByProductIdIn(anyCollection())).thenAnswer(invocation -> invocation.<Collection<Long>>getArgument(0).stream()
+                .flatMap(productId -> linesByProduct.getOrDefault(productId, List.of()).stream())
+                .toList());
+
+        RecipeIndex recipeIndex = new RecipeIndex(productRepository, productIngredientRepository);
+        recipeIndex.reload();
+
+        productService = new ProductService(
+                productRepository,
+                productIngredientRepository,
+                mock(IngredientRepository.class),
+                mock(IngredientService.class),
+                mock(EntityManager.class),
+                recipeIndex,
+                mock(Validator.class),
+                mock(StockMovementRecorder.class),
+                mock(OutboxWriter.class),
+                mock(ProductSearchIndex.class),
+                mock(CatalogChangeService.class)
+        );
+
+        order = CatalogFixtures.order(catalogSize, orderLines);
+
+        Map<Long, Recipe> recipes = recipeIndex.getAllRecipes();
+        orderRecipes = new ArrayList<>(orderLines);
+        for (ManageProductsRequest line : order) {
+            orderRecipes.add(recipes.get(line.getProductId()));
+        }
+    }
+
+    @Benchmark
+    public Map<Long, Double> recipeExpansion() {
+        StockDeltaAccumulator stockDeltas = new StockDeltaAccumulator(orderLines * CatalogFixtures.LINES_PER_PRODUCT);
+        for (int line = 0; line < orderLines; line++) {
+            orderRecipes.get(line).accumulate(-order.get(line).getQuantity(), stockDeltas);
+        }
+        return stockDeltas.toMap();
+    }
+
+    @Benchmark
+    public void consumeProducts() {
+        productService.consumeProducts(order);
+    }
+}
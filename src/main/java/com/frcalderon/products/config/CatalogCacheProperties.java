@@ -0,0 +1,19 @@
+package com.frcalderon.products.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "sweetify.cache")
+public class CatalogCacheProperties {
+
+    /**
+     * Whether single-ingredient lookups, stock included, are served from the cache. Writes on this
+     * pod evict their entries on commit, but writes on other pods only show once the entry expires
+     * ({@code expireAfterWrite} in {@code spring.cache.caffeine.spec}). Disable it to always read
+     * ingredients from the database, e.g. when several pods mutate stock.
+     */
+    private boolean ingredients = true;
+}
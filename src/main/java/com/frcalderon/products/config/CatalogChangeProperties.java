@@ -0,0 +1,18 @@
+package com.frcalderon.products.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "sweetify.changes")
+public class CatalogChangeProperties {
+
+    /**
+     * Whether the {@code /changes} feed is served and catalog writes are stamped for it. Rows
+     * written while it was off are stamped at the next startup with it on, but updates made
+     * meanwhile keep their old sequence, so replicas should resync after re-enabling it.
+     */
+    private boolean enabled = true;
+}
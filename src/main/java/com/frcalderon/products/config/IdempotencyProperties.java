@@ -0,0 +1,23 @@
+package com.frcalderon.products.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "sweetify.idempotency")
+public class IdempotencyProperties {
+
+    /**
+     * How long a response is replayed for an {@code Idempotency-Key} before the key can be reused.
+     */
+    private Duration ttl = Duration.ofHours(24);
+
+    /**
+     * Maximum number of completed responses kept in memory; older ones are served from the table.
+     */
+    private long maximumSize = 100_000;
+}
@@ -0,0 +1,17 @@
+package com.frcalderon.products.config;
+
+import com.frcalderon.products.outbox.LoggingOutboxPublisher;
+import com.frcalderon.products.outbox.OutboxPublisher;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class OutboxConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(OutboxPublisher.class)
+    public OutboxPublisher outboxPublisher() {
+        return new LoggingOutboxPublisher();
+    }
+}
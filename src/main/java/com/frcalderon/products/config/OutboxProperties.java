@@ -0,0 +1,26 @@
+package com.frcalderon.products.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "sweetify.outbox")
+public class OutboxProperties {
+
+    /**
+     * Whether catalog and stock changes are written to the outbox.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Whether this instance drains the outbox to the {@code OutboxPublisher}.
+     */
+    private boolean relayEnabled = true;
+
+    /**
+     * Maximum number of outbox rows locked and published per relay transaction.
+     */
+    private int batchSize = 500;
+}
@@ -0,0 +1,25 @@
+package com.frcalderon.products.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+
+@Configuration
+@EnableWebFluxSecurity
+@Profile("dev & reactive")
+public class ReactiveSecurityConfigurationDev {
+
+    @Bean
+    public SecurityWebFilterChain filterChain(ServerHttpSecurity http) {
+        http
+                .csrf().disable()
+                .authorizeExchange(authorize -> authorize
+                        .pathMatchers("/**").permitAll()
+                );
+
+        return http.build();
+    }
+}
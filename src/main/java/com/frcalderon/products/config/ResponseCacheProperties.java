@@ -0,0 +1,27 @@
+package com.frcalderon.products.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "sweetify.response-cache")
+public class ResponseCacheProperties {
+
+    /**
+     * Whether serialized catalog responses are kept in memory, keyed by their ETag.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Whether a gzip copy of each cached response is kept and served to clients accepting gzip.
+     */
+    private boolean gzip = true;
+
+    /**
+     * Upper bound on the bytes held by the cache, plain and gzip copies combined.
+     */
+    private DataSize maximumSize = DataSize.ofMegabytes(64);
+}
@@ -10,7 +10,7 @@ import org.springframework.security.web.SecurityFilterChain;
 
 @Configuration
 @EnableWebSecurity
-@Profile("prod")
+@Profile("prod & !reactive")
 public class SecurityConfiguration {
 
     @Bean
@@ -0,0 +1,22 @@
+package com.frcalderon.products.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "sweetify.stock.ledger")
+public class StockLedgerProperties {
+
+    /**
+     * Whether ingredient stock mutations are acknowledged from memory and written to the
+     * database in periodic batches instead of one statement per request.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Number of locks ingredient accounts are striped across. Rounded up to a power of two.
+     */
+    private int stripes = 64;
+}
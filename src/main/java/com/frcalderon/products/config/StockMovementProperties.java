@@ -0,0 +1,22 @@
+package com.frcalderon.products.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "sweetify.stock.movements")
+public class StockMovementProperties {
+
+    /**
+     * Whether stock mutations are recorded as movements and folded into snapshots.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Whether stock movements are buffered in memory after commit and inserted in periodic
+     * batches across requests, instead of being inserted in the request's own transaction.
+     */
+    private boolean buffered = false;
+}
@@ -0,0 +1,26 @@
+package com.frcalderon.products.controller;
+
+import com.frcalderon.products.service.CatalogChangeService;
+import com.frcalderon.products.service.CatalogChanges;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/changes")
+@Profile("!reactive")
+@ConditionalOnProperty(prefix = "sweetify.changes", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class CatalogChangeController {
+
+    @Autowired
+    private CatalogChangeService catalogChangeService;
+
+    @GetMapping
+    @ResponseStatus(HttpStatus.OK)
+    public CatalogChanges getChanges(@RequestParam(defaultValue = "0") Long since,
+                                     @RequestParam(defaultValue = "100") Integer limit) {
+        return this.catalogChangeService.getChanges(since, limit);
+    }
+}
@@ -0,0 +1,220 @@
+package com.frcalderon.products.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.frcalderon.products.exceptions.CustomException;
+import com.frcalderon.products.model.IdempotencyRecord;
+import com.frcalderon.products.service.IdempotencyService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AllArgsConstructor;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Makes the stock endpoints safe to retry. The first request carrying an {@code Idempotency-Key}
+ * runs normally and its response is stored; replays with the same key and body get that response
+ * back without reaching the controller, and a replay while the first request is still running is
+ * rejected with 409. A failed request releases its key for a retry only when its stock write is
+ * known to have rolled back; otherwise the failure is stored as the response. Keys are scoped to
+ * the authenticated caller, so two clients choosing the same key never see each other's responses.
+ */
+@AllArgsConstructor
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private static final String ANONYMOUS_CALLER = "anonymous";
+
+    private final IdempotencyService idempotencyService;
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod()) || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String idempotencyKey = callerOf(request) + ":" + request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        byte[] body = StreamUtils.copyToByteArray(request.getInputStream());
+        String fingerprint = fingerprint(request, body);
+
+        Optional<IdempotencyRecord> existing = idempotencyService.find(idempotencyKey);
+        if (existing.isPresent()) {
+            replay(existing.get(), fingerprint, response);
+            return;
+        }
+
+        if (!idempotencyService.reserve(idempotencyKey, fingerprint)) {
+            writeError(response, HttpStatus.CONFLICT, "Request with this Idempotency-Key is already in progress");
+            return;
+        }
+
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(new CachedBodyRequest(request, body), responseWrapper);
+        } catch (IOException | ServletException | RuntimeException e) {
+            if (idempotencyService.mayHaveWritten(request)) {
+                idempotencyService.complete(
+                        idempotencyKey,
+                        HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                        MediaType.APPLICATION_JSON_VALUE,
+                        errorBody(HttpStatus.INTERNAL_SERVER_ERROR, "Request failed after its stock change may have been applied")
+                );
+            } else {
+                idempotencyService.release(idempotencyKey);
+            }
+            throw e;
+        }
+
+        if (HttpStatus.valueOf(responseWrapper.getStatus()).is2xxSuccessful() || idempotencyService.mayHaveWritten(request)) {
+            idempotencyService.complete(
+                    idempotencyKey,
+                    responseWrapper.getStatus(),
+                    responseWrapper.getContentType(),
+                    new String(responseWrapper.getContentAsByteArray(), StandardCharsets.UTF_8)
+            );
+        } else {
+            idempotencyService.release(idempotencyKey);
+        }
+
+        responseWrapper.copyBodyToResponse();
+    }
+
+    private void replay(IdempotencyRecord record, String fingerprint, HttpServletResponse response) throws IOException {
+        if (!record.getRequestFingerprint().equals(fingerprint)) {
+            writeError(response, HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency-Key was already used for a different request");
+            return;
+        }
+
+        if (!record.isCompleted()) {
+            writeError(response, HttpStatus.CONFLICT, "Request with this Idempotency-Key is already in progress");
+            return;
+        }
+
+        response.setStatus(record.getResponseStatus());
+        if (record.getResponseContentType() != null) {
+            response.setContentType(record.getResponseContentType());
+        }
+        if (record.getResponseBody() != null) {
+            response.getOutputStream().write(record.getResponseBody().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus httpStatus, String message) throws IOException {
+        response.setStatus(httpStatus.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(errorBody(httpStatus, message).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String errorBody(HttpStatus httpStatus, String message) throws IOException {
+        CustomException exception = CustomException.builder()
+                .message(message)
+                .httpStatus(httpStatus)
+                .timestamp(ZonedDateTime.now(ZoneId.of("Z")))
+                .build();
+
+        return objectMapper.writeValueAsString(exception);
+    }
+
+    private static String callerOf(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        return principal == null ? ANONYMOUS_CALLER : principal.getName();
+    }
+
+    private static String fingerprint(HttpServletRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(request.getRequestURI().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream inputStream = new ByteArrayInputStream(body);
+
+            return new ServletInputStream() {
+
+                @Override
+                public int read() {
+                    return inputStream.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return inputStream.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return inputStream.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                /**
+                 * The whole body is already in memory, so the listener is told at once that data is
+                 * available and, once it has read it, that all data was read.
+                 */
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            readListener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+    }
+}
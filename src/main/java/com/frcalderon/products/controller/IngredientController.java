@@ -1,36 +1,85 @@
 package com.frcalderon.products.controller;
 
+import com.frcalderon.products.controller.dto.BatchItemResponse;
 import com.frcalderon.products.controller.dto.IngredientRequest;
 import com.frcalderon.products.controller.dto.IngredientResponse;
 import com.frcalderon.products.controller.dto.IngredientStockRequest;
+import com.frcalderon.products.controller.dto.PageResponse;
 import com.frcalderon.products.model.Ingredient;
+import com.frcalderon.products.model.IngredientStock;
+import com.frcalderon.products.model.IngredientUsage;
+import com.frcalderon.products.model.LowStockIngredient;
+import com.frcalderon.products.service.CatalogVersionService;
 import com.frcalderon.products.service.IngredientService;
+import com.frcalderon.products.service.StockMovementService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/ingredients")
+@Profile("!reactive")
 public class IngredientController {
 
     @Autowired
     private IngredientService ingredientService;
 
+    @Autowired
+    private StockMovementService stockMovementService;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
     @GetMapping
+    public ResponseEntity<PageResponse<IngredientResponse>> getAllIngredients(@RequestParam(defaultValue = "0") Long after,
+                                                                              @RequestParam(defaultValue = "100") Integer limit,
+                                                                              WebRequest webRequest) {
+        String eTag = this.catalogVersionService.getIngredientsETag(after, limit);
+        if (eTag != null && webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+
+        Slice<Ingredient> ingredients = this.ingredientService.getAllIngredients(after, limit);
+        return ResponseEntity.ok(new PageResponse<>(ingredients, IngredientResponse::new, Ingredient::getId));
+    }
+
+    @GetMapping("/low-stock")
     @ResponseStatus(HttpStatus.OK)
-    public List<IngredientResponse> getAllIngredients() {
-        List<Ingredient> ingredients = this.ingredientService.getAllIngredients();
-        return ingredients.stream().map(IngredientResponse::new).collect(Collectors.toList());
+    public List<LowStockIngredient> getLowStockIngredients() {
+        return this.ingredientService.getLowStockIngredients();
     }
 
     @GetMapping("/{id}")
-    @ResponseStatus(HttpStatus.OK)
-    public IngredientResponse getIngredient(@PathVariable Long id) {
+    public ResponseEntity<IngredientResponse> getIngredient(@PathVariable Long id, WebRequest webRequest) {
+        String eTag = this.catalogVersionService.getIngredientETag(id);
+        if (eTag != null && webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+
         Ingredient ingredient = this.ingredientService.getIngredient(id);
-        return new IngredientResponse(ingredient);
+        if (eTag != null && !eTag.equals(this.catalogVersionService.getIngredientETag(ingredient))) {
+            ingredient = this.ingredientService.refreshIngredient(id);
+        }
+
+        return ResponseEntity.ok(new IngredientResponse(ingredient));
+    }
+
+    @GetMapping("/{id}/products")
+    @ResponseStatus(HttpStatus.OK)
+    public List<IngredientUsage> getIngredientUsages(@PathVariable Long id) {
+        return this.ingredientService.getIngredientUsages(id);
+    }
+
+    @GetMapping("/{id}/stock/replay")
+    @ResponseStatus(HttpStatus.OK)
+    public IngredientStock replayStock(@PathVariable Long id) {
+        return this.stockMovementService.replayStock(id);
     }
 
     @PostMapping
@@ -40,6 +89,14 @@ public class IngredientController {
         return new IngredientResponse(ingredient);
     }
 
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.OK)
+    public List<BatchItemResponse<IngredientResponse>> createIngredients(@RequestBody List<IngredientRequest> ingredientRequestList) {
+        return this.ingredientService.createIngredients(ingredientRequestList).stream()
+                .map(result -> new BatchItemResponse<>(result, IngredientResponse::new))
+                .toList();
+    }
+
     @PutMapping("/{id}")
     @ResponseStatus(HttpStatus.OK)
     public IngredientResponse updateIngredient(@PathVariable Long id, @RequestBody IngredientRequest ingredientRequest) {
@@ -1,36 +1,100 @@
 package com.frcalderon.products.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.frcalderon.products.controller.dto.BatchItemResponse;
 import com.frcalderon.products.controller.dto.ManageProductsRequest;
+import com.frcalderon.products.controller.dto.PageResponse;
 import com.frcalderon.products.controller.dto.ProductRequest;
 import com.frcalderon.products.controller.dto.ProductResponse;
 import com.frcalderon.products.model.Product;
+import com.frcalderon.products.service.AvailabilityService;
+import com.frcalderon.products.service.CatalogVersionService;
+import com.frcalderon.products.service.ProductAvailability;
+import com.frcalderon.products.service.ProductSearchResult;
 import com.frcalderon.products.service.ProductService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/products")
+@Profile("!reactive")
 public class ProductController {
 
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private SerializedResponseCache serializedResponseCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @GetMapping
+    public ResponseEntity<byte[]> getAllProducts(@RequestParam(defaultValue = "0") Long after,
+                                                 @RequestParam(defaultValue = "100") Integer limit,
+                                                 WebRequest webRequest) {
+        String eTag = this.catalogVersionService.getProductsETag(after, limit);
+        return this.serializedResponseCache.respond("products", eTag, webRequest,
+                () -> this.productService.getAllProducts(after, limit),
+                products -> this.catalogVersionService.getProductsETag(after, limit, products),
+                products -> new PageResponse<>(products, ProductResponse::new, Product::getId));
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public void exportProducts(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream outputStream = response.getOutputStream();
+        ObjectWriter productWriter = this.objectMapper.writerFor(ProductResponse.class);
+
+        this.productService.exportProducts(product -> {
+            try {
+                outputStream.write(productWriter.writeValueAsBytes(new ProductResponse(product)));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @GetMapping("/availability")
     @ResponseStatus(HttpStatus.OK)
-    public List<ProductResponse> getAllProducts() {
-        List<Product> products = this.productService.getAllProducts();
-        return products.stream().map(ProductResponse::new).collect(Collectors.toList());
+    public List<ProductAvailability> getAvailability(@RequestParam(required = false) List<Long> ids) {
+        return this.availabilityService.getAvailability(ids);
     }
 
-    @GetMapping("/{id}")
+    @GetMapping("/search")
     @ResponseStatus(HttpStatus.OK)
-    public ProductResponse getProduct(@PathVariable Long id) {
-        Product product = this.productService.getProduct(id);
-        return new ProductResponse(product);
+    public List<ProductSearchResult> searchProducts(@RequestParam String q,
+                                                    @RequestParam(defaultValue = "20") Integer limit) {
+        return this.productService.searchProducts(q, limit);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<byte[]> getProduct(@PathVariable Long id, WebRequest webRequest) {
+        String eTag = this.catalogVersionService.getProductETag(id);
+        return this.serializedResponseCache.respond("product", eTag, webRequest,
+                () -> this.productService.getProduct(id),
+                this.catalogVersionService::getProductETag,
+                ProductResponse::new);
     }
 
     @PostMapping
@@ -40,6 +104,14 @@ public class ProductController {
         return new ProductResponse(product);
     }
 
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.OK)
+    public List<BatchItemResponse<ProductResponse>> createProducts(@RequestBody List<ProductRequest> productRequestList) {
+        return this.productService.createProducts(productRequestList).stream()
+                .map(result -> new BatchItemResponse<>(result, ProductResponse::new))
+                .toList();
+    }
+
     @PutMapping("/{id}")
     @ResponseStatus(HttpStatus.OK)
     public ProductResponse updateProduct(@PathVariable Long id, @RequestBody ProductRequest productRequest) {
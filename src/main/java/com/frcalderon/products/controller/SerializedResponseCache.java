@@ -0,0 +1,159 @@
+package com.frcalderon.products.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.frcalderon.products.config.ResponseCacheProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps catalog responses as ready-to-write JSON bytes, plus a gzip copy, keyed by the strong ETag
+ * of the data they render. A write changes the ETag, so the next read misses and regenerates the
+ * entry; stale entries simply age out of the size-bounded cache. Responses are written from the
+ * cached arrays as they are, without touching entities or Jackson.
+ */
+@Component
+public class SerializedResponseCache {
+
+    private static final String GZIP = "gzip";
+
+    private final ObjectMapper objectMapper;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ResponseCacheProperties responseCacheProperties;
+
+    private final Cache<String, SerializedResponse> cache;
+
+    private final DistributionSummary renderedSize;
+
+    public SerializedResponseCache(ObjectMapper objectMapper,
+                                   ObjectProvider<MeterRegistry> meterRegistry,
+                                   ResponseCacheProperties responseCacheProperties) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry.getIfAvailable(() -> Metrics.globalRegistry);
+        this.responseCacheProperties = responseCacheProperties;
+
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(responseCacheProperties.getMaximumSize().toBytes())
+                .weigher((String eTag, SerializedResponse response) -> response.weight())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(this.meterRegistry, cache, "serializedResponses");
+
+        this.renderedSize = DistributionSummary.builder("sweetify.response.cache.size")
+                .description("Size of regenerated catalog responses before compression")
+                .baseUnit("bytes")
+                .register(this.meterRegistry);
+    }
+
+    /**
+     * Answers a conditional GET with 304, or writes the cached representation of {@code eTag},
+     * rendering {@code body} on a miss. A null ETag renders without caching or validation.
+     */
+    public ResponseEntity<byte[]> respond(String resource, String eTag, WebRequest webRequest, Supplier<?> body) {
+        return respond(resource, eTag, webRequest, body, loaded -> eTag, Function.identity());
+    }
+
+    /**
+     * Like {@link #respond(String, String, WebRequest, Supplier)}, but on a miss the rendered bytes
+     * are cached under the ETag of the data actually loaded, as given by {@code eTagOf}. A write
+     * landing between the ETag lookup and the load therefore never files newer or older bytes
+     * under {@code eTag}; the response is sent with the loaded data's own ETag instead.
+     */
+    public <T> ResponseEntity<byte[]> respond(String resource, String eTag, WebRequest webRequest,
+                                              Supplier<T> loader, Function<T, String> eTagOf, Function<T, ?> view) {
+        boolean gzip = responseCacheProperties.isGzip() && acceptsGzip(webRequest);
+        String representationETag = representationETag(eTag, gzip);
+
+        if (representationETag != null && webRequest.checkNotModified(representationETag)) {
+            return null;
+        }
+
+        boolean cacheable = eTag != null && responseCacheProperties.isEnabled();
+        SerializedResponse response = cacheable ? cache.getIfPresent(eTag) : null;
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (response == null) {
+            T loaded = loader.get();
+            String loadedETag = eTag == null ? null : eTagOf.apply(loaded);
+            response = render(resource, () -> view.apply(loaded));
+
+            if (cacheable && loadedETag != null) {
+                cache.put(loadedETag, response);
+            }
+            if (loadedETag != null && !loadedETag.equals(eTag)) {
+                builder.eTag(representationETag(loadedETag, gzip));
+            }
+        }
+
+        if (gzip && response.gzip() != null) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, GZIP).body(response.gzip());
+        }
+
+        return builder.body(response.json());
+    }
+
+    private SerializedResponse render(String resource, Supplier<?> body) {
+        return Timer.builder("sweetify.response.cache.render")
+                .description("Time spent loading, serializing and compressing a catalog response")
+                .tag("resource", resource)
+                .register(meterRegistry)
+                .record(() -> {
+                    try {
+                        byte[] json = objectMapper.writeValueAsBytes(body.get());
+                        renderedSize.record(json.length);
+                        return new SerializedResponse(json, responseCacheProperties.isGzip() ? gzip(json) : null);
+                    } catch (JsonProcessingException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, json.length / 4));
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(compressed)) {
+            gzipOutputStream.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static String representationETag(String eTag, boolean gzip) {
+        return eTag != null && gzip ? eTag.substring(0, eTag.length() - 1) + "-gzip\"" : eTag;
+    }
+
+    private static boolean acceptsGzip(WebRequest webRequest) {
+        String acceptEncoding = webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains(GZIP);
+    }
+
+    private record SerializedResponse(byte[] json, byte[] gzip) {
+
+        int weight() {
+            return json.length + (gzip == null ? 0 : gzip.length);
+        }
+    }
+}
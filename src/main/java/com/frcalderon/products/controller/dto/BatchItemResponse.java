@@ -0,0 +1,30 @@
+package com.frcalderon.products.controller.dto;
+
+import com.frcalderon.products.service.BatchResult;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.http.HttpStatus;
+
+import java.util.function.Function;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemResponse<T> {
+
+    public <E> BatchItemResponse(BatchResult<E> result, Function<E, T> mapper) {
+        this.index = result.getIndex();
+        this.status = result.isCreated() ? HttpStatus.CREATED.value() : HttpStatus.BAD_REQUEST.value();
+        this.item = result.isCreated() ? mapper.apply(result.getItem()) : null;
+        this.error = result.getError();
+    }
+
+    private int index;
+
+    private int status;
+
+    private T item;
+
+    private String error;
+}
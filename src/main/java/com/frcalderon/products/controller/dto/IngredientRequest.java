@@ -22,4 +22,7 @@ public class IngredientRequest {
     @NotNull
     @Digits(integer = 10, fraction = 2)
     private Double stock;
+
+    @Digits(integer = 10, fraction = 2)
+    private Double reorderThreshold;
 }
@@ -17,6 +17,7 @@ public class IngredientResponse {
         this.name = ingredient.getName();
         this.units = ingredient.getUnits();
         this.stock = ingredient.getStock();
+        this.reorderThreshold = ingredient.getReorderThreshold();
     }
 
     private Long id;
@@ -26,4 +27,6 @@ public class IngredientResponse {
     private String units;
 
     private Double stock;
+
+    private Double reorderThreshold;
 }
@@ -0,0 +1,27 @@
+package com.frcalderon.products.controller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PageResponse<T> {
+
+    public <E> PageResponse(Slice<E> slice, Function<E, T> mapper, Function<E, Long> cursor) {
+        this.items = slice.stream().map(mapper).collect(Collectors.toList());
+        this.nextCursor = slice.hasNext() ? cursor.apply(slice.getContent().get(slice.getNumberOfElements() - 1)) : null;
+    }
+
+    private List<T> items;
+
+    private Long nextCursor;
+}
@@ -1,5 +1,6 @@
 package com.frcalderon.products.exceptions;
 
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -49,4 +50,17 @@ public class CustomExceptionHandler {
 
         return new ResponseEntity<>(exception, httpStatus);
     }
+
+    @ExceptionHandler
+    public ResponseEntity<Object> handleConcurrencyFailureException(ConcurrencyFailureException e) {
+        HttpStatus httpStatus = HttpStatus.CONFLICT;
+
+        CustomException exception = CustomException.builder()
+                .message("Resource was modified concurrently, please retry")
+                .httpStatus(httpStatus)
+                .timestamp(ZonedDateTime.now(ZoneId.of("Z")))
+                .build();
+
+        return new ResponseEntity<>(exception, httpStatus);
+    }
 }
@@ -0,0 +1,40 @@
+package com.frcalderon.products.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class MetricsConfiguration implements WebMvcConfigurer {
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Bean
+    public HibernatePropertiesCustomizer queryCountHibernatePropertiesCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new QueryCountInspector());
+    }
+
+    @Bean
+    public MeterFilter stockUnitsCardinalityFilter(@Value("${sweetify.metrics.max-ingredient-tags:500}") int maxIngredientTags) {
+        return MeterFilter.maximumAllowableTags(StockMetrics.METRIC_NAME, "ingredient", maxIngredientTags, MeterFilter.deny());
+    }
+
+    @Bean
+    public MeterFilter stockConflictsCardinalityFilter(@Value("${sweetify.metrics.max-ingredient-tags:500}") int maxIngredientTags) {
+        return MeterFilter.maximumAllowableTags(StockRetryListener.CONFLICTS_METRIC_NAME, "ingredient", maxIngredientTags, MeterFilter.deny());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        meterRegistry.ifAvailable(registered -> registry.addInterceptor(new QueryCountInterceptor(registered)));
+    }
+}
@@ -0,0 +1,41 @@
+package com.frcalderon.products.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.AllArgsConstructor;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Records the number of SQL statements issued while handling each request as
+ * {@code sweetify.http.queries}, tagged with the controller operation that served it.
+ */
+@AllArgsConstructor
+public class QueryCountInterceptor implements HandlerInterceptor {
+
+    public static final String METRIC_NAME = "sweetify.http.queries";
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        QueryCountInspector.reset();
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return;
+        }
+
+        DistributionSummary.builder(METRIC_NAME)
+                .description("SQL statements issued per request")
+                .tag("operation", handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName())
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(QueryCountInspector.count());
+    }
+}
@@ -0,0 +1,46 @@
+package com.frcalderon.products.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every public method of the {@code @Service} beans as {@code sweetify.service}, tagged with
+ * the operation ({@code ProductService.consumeProducts}) and its outcome ({@code success} or the
+ * simple name of the exception thrown), with percentile histograms for Prometheus. Reactive
+ * services are skipped, since their methods only assemble the pipeline.
+ */
+@Aspect
+@Component
+@AllArgsConstructor
+public class ServiceMetricsAspect {
+
+    public static final String METRIC_NAME = "sweetify.service";
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("@within(org.springframework.stereotype.Service) && execution(public * *(..)) && !within(com.frcalderon.products.reactive..*)")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        String operation = joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(METRIC_NAME)
+                    .description("Time spent in service operations")
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+}
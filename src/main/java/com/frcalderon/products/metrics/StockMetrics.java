@@ -0,0 +1,69 @@
+package com.frcalderon.products.metrics;
+
+import com.frcalderon.products.model.Ingredient;
+import com.frcalderon.products.service.StockThresholdCrossedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Counts stock units added to and consumed from each ingredient as {@code sweetify.stock.units},
+ * and reorder threshold crossings as {@code sweetify.stock.threshold.crossings}.
+ * The number of distinct ingredient tags is capped by {@link MetricsConfiguration}.
+ */
+@Slf4j
+@Component
+@AllArgsConstructor
+public class StockMetrics {
+
+    public static final String METRIC_NAME = "sweetify.stock.units";
+
+    public static final String THRESHOLD_METRIC_NAME = "sweetify.stock.threshold.crossings";
+
+    private final MeterRegistry meterRegistry;
+
+    public void record(Long ingredientId, double delta) {
+        if (delta == 0) {
+            return;
+        }
+
+        Counter.builder(METRIC_NAME)
+                .description("Stock units added to or consumed from an ingredient")
+                .tag("ingredient", String.valueOf(ingredientId))
+                .tag("direction", delta > 0 ? "added" : "consumed")
+                .register(meterRegistry)
+                .increment(Math.abs(delta));
+    }
+
+    public void record(Map<Long, Double> stockDeltas) {
+        stockDeltas.forEach(this::record);
+    }
+
+    public Ingredient record(Ingredient ingredient, double delta) {
+        record(ingredient.getId(), delta);
+        return ingredient;
+    }
+
+    @EventListener
+    public void onThresholdCrossed(StockThresholdCrossedEvent event) {
+        if (event.isBelowThreshold()) {
+            log.warn("Ingredient {} ({}) is below its reorder threshold: {} < {} {}",
+                    event.getIngredient().getIngredientId(), event.getIngredient().getName(),
+                    event.getIngredient().getStock(), event.getIngredient().getReorderThreshold(), event.getIngredient().getUnits());
+        } else {
+            log.info("Ingredient {} ({}) is back at its reorder threshold",
+                    event.getIngredient().getIngredientId(), event.getIngredient().getName());
+        }
+
+        Counter.builder(THRESHOLD_METRIC_NAME)
+                .description("Ingredients crossing their reorder threshold")
+                .tag("direction", event.isBelowThreshold() ? "below" : "recovered")
+                .register(meterRegistry)
+                .increment();
+    }
+}
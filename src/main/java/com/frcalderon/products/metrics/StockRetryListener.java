@@ -0,0 +1,72 @@
+package com.frcalderon.products.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.support.RetrySynchronizationManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Records optimistic lock conflicts on ingredient writes as {@code sweetify.stock.conflicts},
+ * tagged with each ingredient the failed attempt touched, and the retries each operation needed as
+ * {@code sweetify.stock.retries}. Retried code reports the ingredients it is about to write through
+ * {@link #touch(Collection)}.
+ */
+@Component("stockRetryListener")
+@AllArgsConstructor
+public class StockRetryListener implements RetryListener {
+
+    public static final String CONFLICTS_METRIC_NAME = "sweetify.stock.conflicts";
+
+    public static final String RETRIES_METRIC_NAME = "sweetify.stock.retries";
+
+    private static final String INGREDIENTS_ATTRIBUTE = "sweetify.ingredients";
+
+    private final MeterRegistry meterRegistry;
+
+    public static void touch(Collection<Long> ingredientIds) {
+        RetryContext context = RetrySynchronizationManager.getContext();
+        if (context != null) {
+            context.setAttribute(INGREDIENTS_ATTRIBUTE, List.copyOf(ingredientIds));
+        }
+    }
+
+    @Override
+    public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+        if (!(throwable instanceof ConcurrencyFailureException)) {
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Long> ingredientIds = (List<Long>) context.getAttribute(INGREDIENTS_ATTRIBUTE);
+        if (ingredientIds == null) {
+            return;
+        }
+
+        for (Long ingredientId : ingredientIds) {
+            Counter.builder(CONFLICTS_METRIC_NAME)
+                    .description("Optimistic lock conflicts while writing ingredients")
+                    .tag("ingredient", String.valueOf(ingredientId))
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+
+    @Override
+    public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback, Throwable throwable) {
+        DistributionSummary.builder(RETRIES_METRIC_NAME)
+                .description("Retries needed by version-checked catalog writes")
+                .tag("operation", String.valueOf(context.getAttribute(RetryContext.NAME)))
+                .tag("outcome", throwable == null ? "success" : "failure")
+                .register(meterRegistry)
+                .record(context.getRetryCount() - (throwable == null ? 0 : 1));
+    }
+}
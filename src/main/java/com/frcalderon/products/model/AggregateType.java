@@ -0,0 +1,6 @@
+package com.frcalderon.products.model;
+
+public enum AggregateType {
+    PRODUCT,
+    INGREDIENT
+}
@@ -0,0 +1,68 @@
+package com.frcalderon.products.model;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.FlushModeType;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Marks the change sequences a transaction may still commit. Before a transaction takes its first
+ * change sequence it draws one more value, W, from {@code catalog_change_seq} and holds an
+ * advisory lock on it until it ends, so every sequence it writes is above W. The change feed reads
+ * the last value of the sequence and then the lowest W still locked, and serves only what lies
+ * below both: anything lower is already committed or rolled back. The window is opened by the
+ * {@code catalog_change_window()} database function, which the stamping trigger calls for catalog
+ * rows and {@link #open(EntityManager)} calls before tombstones take their sequence.
+ */
+public final class CatalogChangeWindow {
+
+    /**
+     * High 16 bits of the advisory lock keys, so change windows do not collide with other locks.
+     */
+    public static final long NAMESPACE = 0x5357L;
+
+    public static final String SEQUENCE_NAME = "catalog_change_seq";
+
+    public static final String FUNCTION_NAME = "catalog_change_window";
+
+    private static final String OPEN = "SELECT 1 FROM " + FUNCTION_NAME + "()";
+
+    private CatalogChangeWindow() {
+    }
+
+    /**
+     * Opens the window of the current transaction, once per transaction. Does nothing outside a
+     * transaction or on databases other than PostgreSQL.
+     */
+    public static void open(EntityManager entityManager) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        boolean opened = TransactionSynchronizationManager.getSynchronizations().stream()
+                .anyMatch(Opened.class::isInstance);
+        if (opened || !isPostgreSQL(entityManager.getEntityManagerFactory())) {
+            return;
+        }
+
+        entityManager.createNativeQuery(OPEN)
+                .setFlushMode(FlushModeType.COMMIT)
+                .getSingleResult();
+        TransactionSynchronizationManager.registerSynchronization(new Opened());
+    }
+
+    public static boolean isPostgreSQL(EntityManagerFactory entityManagerFactory) {
+        return entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect() instanceof PostgreSQLDialect;
+    }
+
+    /**
+     * Registered with the transaction, so it is suspended and resumed with it.
+     */
+    private static final class Opened implements TransactionSynchronization {
+    }
+}
@@ -0,0 +1,7 @@
+package com.frcalderon.products.model;
+
+public enum CatalogEntityType {
+    PRODUCT,
+    INGREDIENT,
+    PRODUCT_INGREDIENT
+}
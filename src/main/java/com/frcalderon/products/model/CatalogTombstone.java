@@ -0,0 +1,32 @@
+package com.frcalderon.products.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogTombstone {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = CatalogChangeWindow.SEQUENCE_NAME)
+    @SequenceGenerator(name = CatalogChangeWindow.SEQUENCE_NAME, sequenceName = CatalogChangeWindow.SEQUENCE_NAME, allocationSize = 1)
+    private Long changeSeq;
+
+    @Column(nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private CatalogEntityType entityType;
+
+    @Column(nullable = false)
+    private Long entityId;
+
+    @Column(nullable = false)
+    private Instant changedAt;
+}
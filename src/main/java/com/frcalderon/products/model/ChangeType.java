@@ -0,0 +1,8 @@
+package com.frcalderon.products.model;
+
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED,
+    STOCK_CHANGED
+}
@@ -8,10 +8,13 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.util.List;
 
 @Entity
+@Table(indexes = @Index(name = "ingredient_change_seq_idx", columnList = "changeSeq"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -19,9 +22,24 @@ import java.util.List;
 public class Ingredient {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ingredient_seq")
+    @SequenceGenerator(name = "ingredient_seq", sequenceName = "ingredient_seq", allocationSize = 50)
     private Long id;
 
+    @Version
+    @Column(columnDefinition = "bigint default 0")
+    @JsonIgnore
+    private Long version;
+
+    @Column(insertable = false, updatable = false)
+    @JsonIgnore
+    private Long changeSeq;
+
+    @Column
+    @UpdateTimestamp
+    @JsonIgnore
+    private Instant changedAt;
+
     @Column
     @NotBlank
     @Size(min = 1, max = 100)
@@ -35,6 +53,9 @@ public class Ingredient {
     @Column
     private Double stock;
 
+    @Column
+    private Double reorderThreshold;
+
     @OneToMany(mappedBy = "ingredient")
     @JsonIgnore
     private List<ProductIngredient> products;
@@ -0,0 +1,25 @@
+package com.frcalderon.products.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IngredientChange {
+
+    private Long changeSeq;
+
+    private Long id;
+
+    private String name;
+
+    private String units;
+
+    private Double stock;
+
+    private Double reorderThreshold;
+}
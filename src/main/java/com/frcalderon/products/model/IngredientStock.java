@@ -0,0 +1,17 @@
+package com.frcalderon.products.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IngredientStock {
+
+    private Long ingredientId;
+
+    private Double stock;
+}
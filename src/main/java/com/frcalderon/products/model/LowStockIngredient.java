@@ -0,0 +1,31 @@
+package com.frcalderon.products.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LowStockIngredient {
+
+    private Long ingredientId;
+
+    private String name;
+
+    private String units;
+
+    private Double stock;
+
+    private Double reorderThreshold;
+
+    @JsonIgnore
+    private Long version;
+
+    public boolean isBelowThreshold() {
+        return stock != null && reorderThreshold != null && stock < reorderThreshold;
+    }
+}
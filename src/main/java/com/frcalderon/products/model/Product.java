@@ -5,10 +5,13 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.util.List;
 
 @Entity
+@Table(indexes = @Index(name = "product_change_seq_idx", columnList = "changeSeq"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -16,9 +19,21 @@ import java.util.List;
 public class Product {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
     private Long id;
 
+    @Version
+    @Column(columnDefinition = "bigint default 0")
+    private Long version;
+
+    @Column(insertable = false, updatable = false)
+    private Long changeSeq;
+
+    @Column
+    @UpdateTimestamp
+    private Instant changedAt;
+
     @Column
     private String name;
 
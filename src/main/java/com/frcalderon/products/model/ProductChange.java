@@ -0,0 +1,23 @@
+package com.frcalderon.products.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductChange {
+
+    private Long changeSeq;
+
+    private Long id;
+
+    private String name;
+
+    private String description;
+
+    private Double price;
+}
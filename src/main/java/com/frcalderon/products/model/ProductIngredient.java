@@ -6,8 +6,12 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
 
 @Entity
+@Table(indexes = @Index(name = "product_ingredient_change_seq_idx", columnList = "changeSeq"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -15,7 +19,8 @@ import lombok.NoArgsConstructor;
 public class ProductIngredient {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_ingredient_seq")
+    @SequenceGenerator(name = "product_ingredient_seq", sequenceName = "product_ingredient_seq", allocationSize = 50)
     @JsonIgnore
     private Long id;
 
@@ -30,4 +35,13 @@ public class ProductIngredient {
 
     @Column
     private Double quantity;
+
+    @Column(insertable = false, updatable = false)
+    @JsonIgnore
+    private Long changeSeq;
+
+    @Column
+    @UpdateTimestamp
+    @JsonIgnore
+    private Instant changedAt;
 }
@@ -0,0 +1,23 @@
+package com.frcalderon.products.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductIngredientChange {
+
+    private Long changeSeq;
+
+    private Long id;
+
+    private Long productId;
+
+    private Long ingredientId;
+
+    private Double quantity;
+}
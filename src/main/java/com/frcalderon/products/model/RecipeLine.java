@@ -0,0 +1,19 @@
+package com.frcalderon.products.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RecipeLine {
+
+    private Long productId;
+
+    private Long ingredientId;
+
+    private Double quantity;
+}
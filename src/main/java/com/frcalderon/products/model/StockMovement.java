@@ -0,0 +1,51 @@
+package com.frcalderon.products.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+@Entity
+@Table(indexes = @Index(name = "stock_movement_ingredient_change_seq_idx", columnList = "ingredientId, changeSeq"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockMovement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_movement_seq")
+    @SequenceGenerator(name = "stock_movement_seq", sequenceName = "stock_movement_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long ingredientId;
+
+    @Column(nullable = false)
+    private Double delta;
+
+    @Column(nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private StockMovementReason reason;
+
+    @Column
+    private Long productId;
+
+    @Column(length = 255)
+    private String requestId;
+
+    @Column(nullable = false)
+    @CreationTimestamp
+    private Instant createdAt;
+
+    /**
+     * Position in the ledger, from {@code catalog_change_seq}, assigned by the database on insert.
+     * Snapshots fold movements in this order, never by {@code createdAt}.
+     */
+    @Column(insertable = false, updatable = false)
+    private Long changeSeq;
+}
@@ -0,0 +1,10 @@
+package com.frcalderon.products.model;
+
+public enum StockMovementReason {
+    CREATED,
+    ADJUSTED,
+    ADDED,
+    CONSUMED,
+    PRODUCT_ADDED,
+    PRODUCT_CONSUMED
+}
@@ -0,0 +1,35 @@
+package com.frcalderon.products.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockSnapshot {
+
+    @Id
+    private Long ingredientId;
+
+    @Column(nullable = false)
+    private Double stock;
+
+    /**
+     * Every movement with a lower change sequence is folded into {@code stock}. Null for snapshots
+     * taken before movements were ordered by change sequence, which are seeded again.
+     */
+    @Column
+    private Long foldedBefore;
+
+    @Column(nullable = false)
+    private Instant takenAt;
+}
@@ -0,0 +1,16 @@
+package com.frcalderon.products.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+
+@Slf4j
+public class LoggingOutboxPublisher implements OutboxPublisher {
+
+    @Override
+    public void publish(List<OutboxMessage> messages) {
+        for (OutboxMessage message : messages) {
+            log.info("{} {} {}: {}", message.getAggregateType(), message.getAggregateId(), message.getChangeType(), message.getPayload());
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.frcalderon.products.outbox;
+
+import com.frcalderon.products.model.AggregateType;
+import com.frcalderon.products.model.ChangeType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Latest change of one product or ingredient handed to an {@link OutboxPublisher}. {@code payload}
+ * is the JSON state after the change; {@code coalesced} counts the earlier changes it replaces.
+ * {@code entityVersion} is the entity's {@code @Version} after the change, so consumers can drop
+ * a message older than one they already applied. It is null for deletions, which are final, and
+ * for stock changes acknowledged by the stock ledger before they reach the database.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxMessage {
+
+    private Long eventId;
+
+    private AggregateType aggregateType;
+
+    private Long aggregateId;
+
+    private Long entityVersion;
+
+    private ChangeType changeType;
+
+    private String payload;
+
+    private Instant occurredAt;
+
+    private int coalesced;
+}
@@ -0,0 +1,12 @@
+package com.frcalderon.products.outbox;
+
+import java.util.List;
+
+/**
+ * Delivers outbox messages to other services. Implementations must either deliver the whole batch
+ * or throw, in which case the relay keeps the events and retries them on its next run.
+ */
+public interface OutboxPublisher {
+
+    void publish(List<OutboxMessage> messages);
+}
@@ -0,0 +1,169 @@
+package com.frcalderon.products.outbox;
+
+import com.frcalderon.products.config.OutboxProperties;
+import com.frcalderon.products.model.AggregateType;
+import com.frcalderon.products.model.ChangeType;
+import com.frcalderon.products.model.OutboxEvent;
+import com.frcalderon.products.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the outbox to the {@link OutboxPublisher}. Each batch runs under a cluster-wide advisory
+ * lock, so only one instance relays at a time and events are published in id order; event ids
+ * come from an unpooled sequence, so for any one entity they follow commit order. Each batch locks
+ * the oldest events, keeps only the latest event per product or ingredient, publishes them and
+ * deletes the whole batch in the same transaction. A failed publish rolls back and the batch is
+ * retried on the next run.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    static final long RELAY_LOCK_KEY = 0x53574F7574626F78L;
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final OutboxPublisher outboxPublisher;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final OutboxProperties outboxProperties;
+
+    private final AtomicLong backlog = new AtomicLong();
+
+    private final Timer publishLatency;
+
+    private final Timer batchTimer;
+
+    private final Counter coalescedCounter;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       OutboxPublisher outboxPublisher,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       OutboxProperties outboxProperties) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxPublisher = outboxPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.outboxProperties = outboxProperties;
+
+        this.publishLatency = Timer.builder("sweetify.outbox.publish.latency")
+                .description("Time from an outbox event being written to it being published")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("sweetify.outbox.batch")
+                .description("Time spent locking, publishing and deleting one outbox batch")
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("sweetify.outbox.coalesced")
+                .description("Outbox events dropped because a later change to the same entity superseded them")
+                .register(meterRegistry);
+        Gauge.builder("sweetify.outbox.backlog", backlog, AtomicLong::get)
+                .description("Outbox events waiting to be published")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${sweetify.outbox.relay-interval:PT1S}")
+    public void relay() {
+        if (!outboxProperties.isRelayEnabled()) {
+            return;
+        }
+
+        try {
+            int drained;
+            do {
+                drained = batchTimer.record(this::relayBatch);
+            } while (drained == outboxProperties.getBatchSize());
+
+            backlog.set(outboxEventRepository.count());
+        } catch (RuntimeException e) {
+            log.warn("Could not relay outbox events, retrying on next run", e);
+        }
+    }
+
+    public long getBacklog() {
+        return backlog.get();
+    }
+
+    private int relayBatch() {
+        Integer drained = transactionTemplate.execute(status -> {
+            if (!outboxEventRepository.tryLockRelay(RELAY_LOCK_KEY)) {
+                return 0;
+            }
+
+            List<OutboxEvent> events = outboxEventRepository.lockBatch(outboxProperties.getBatchSize());
+            if (events.isEmpty()) {
+                return 0;
+            }
+
+            List<OutboxMessage> messages = coalesce(events);
+            outboxPublisher.publish(messages);
+            outboxEventRepository.deleteAllInBatch(events);
+
+            Instant publishedAt = Instant.now();
+            for (OutboxEvent event : events) {
+                publishLatency.record(Duration.between(event.getCreatedAt(), publishedAt));
+            }
+            coalescedCounter.increment(events.size() - messages.size());
+
+            return events.size();
+        });
+
+        return drained == null ? 0 : drained;
+    }
+
+    /**
+     * Keeps the latest event of each entity, in the order those latest events were written.
+     */
+    static List<OutboxMessage> coalesce(List<OutboxEvent> events) {
+        Map<EntityKey, OutboxMessage> latest = new LinkedHashMap<>();
+
+        for (OutboxEvent event : events) {
+            EntityKey key = new EntityKey(event.getAggregateType(), event.getAggregateId());
+            OutboxMessage previous = latest.remove(key);
+
+            latest.put(key, OutboxMessage.builder()
+                    .eventId(event.getId())
+                    .aggregateType(event.getAggregateType())
+                    .aggregateId(event.getAggregateId())
+                    .entityVersion(event.getEntityVersion())
+                    .changeType(coalescedChangeType(previous, event))
+                    .payload(event.getPayload())
+                    .occurredAt(event.getCreatedAt())
+                    .coalesced(previous == null ? 0 : previous.getCoalesced() + 1)
+                    .build());
+        }
+
+        return new ArrayList<>(latest.values());
+    }
+
+    /**
+     * An entity created and then changed within one batch is still announced as created, with its
+     * latest state; any other sequence is announced as its latest change.
+     */
+    private static ChangeType coalescedChangeType(OutboxMessage previous, OutboxEvent event) {
+        if (previous != null && previous.getChangeType() == ChangeType.CREATED && event.getChangeType() != ChangeType.DELETED) {
+            return ChangeType.CREATED;
+        }
+
+        return event.getChangeType();
+    }
+
+    private record EntityKey(AggregateType aggregateType, Long aggregateId) {
+    }
+}
@@ -0,0 +1,82 @@
+package com.frcalderon.products.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.frcalderon.products.config.OutboxProperties;
+import com.frcalderon.products.model.AggregateType;
+import com.frcalderon.products.model.ChangeType;
+import com.frcalderon.products.model.OutboxEvent;
+import com.frcalderon.products.repository.OutboxEventRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Appends change events to the outbox table. Callers must already be in a transaction so the
+ * event commits or rolls back together with the change it describes.
+ */
+@Component
+public class OutboxWriter {
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final ObjectMapper objectMapper;
+
+    private final boolean enabled;
+
+    public OutboxWriter(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper, OutboxProperties outboxProperties) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.enabled = outboxProperties.isEnabled();
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(AggregateType aggregateType, Long aggregateId, Long entityVersion, ChangeType changeType, Object payload) {
+        if (enabled) {
+            outboxEventRepository.save(event(aggregateType, aggregateId, entityVersion, changeType, payload, Instant.now()));
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public <T> void appendAll(AggregateType aggregateType, ChangeType changeType, List<T> aggregates,
+                              Function<T, Long> idFunction, Function<T, Long> versionFunction, Function<T, Object> payloadFunction) {
+        if (!enabled || aggregates.isEmpty()) {
+            return;
+        }
+
+        Instant createdAt = Instant.now();
+        List<OutboxEvent> events = new ArrayList<>(aggregates.size());
+        for (T aggregate : aggregates) {
+            events.add(event(aggregateType, idFunction.apply(aggregate), versionFunction.apply(aggregate), changeType, payloadFunction.apply(aggregate), createdAt));
+        }
+
+        outboxEventRepository.saveAll(events);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendDeleted(AggregateType aggregateType, Long aggregateId) {
+        append(aggregateType, aggregateId, null, ChangeType.DELETED, Map.of("id", aggregateId));
+    }
+
+    private OutboxEvent event(AggregateType aggregateType, Long aggregateId, Long entityVersion, ChangeType changeType, Object payload, Instant createdAt) {
+        try {
+            return OutboxEvent.builder()
+                    .aggregateType(aggregateType)
+                    .aggregateId(aggregateId)
+                    .entityVersion(entityVersion)
+                    .changeType(changeType)
+                    .payload(objectMapper.writeValueAsString(payload))
+                    .createdAt(createdAt)
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.frcalderon.products.reactive;
+
+import com.frcalderon.products.model.Ingredient;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+@Table("ingredient")
+public record IngredientRow(@Id Long id, String name, String units, Double stock, Double reorderThreshold, @Version Long version) {
+
+    public Ingredient toIngredient() {
+        return Ingredient.builder()
+                .id(id)
+                .name(name)
+                .units(units)
+                .stock(stock)
+                .reorderThreshold(reorderThreshold)
+                .build();
+    }
+}
@@ -0,0 +1,8 @@
+package com.frcalderon.products.reactive;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+@Table("product_ingredient")
+public record ProductIngredientRow(@Id Long id, Long productId, Long ingredientId, Double quantity) {
+}
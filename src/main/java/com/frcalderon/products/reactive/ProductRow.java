@@ -0,0 +1,9 @@
+package com.frcalderon.products.reactive;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Table;
+
+@Table("product")
+public record ProductRow(@Id Long id, String name, String description, Double price, @Version Long version) {
+}
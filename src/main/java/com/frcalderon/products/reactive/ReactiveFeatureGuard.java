@@ -0,0 +1,42 @@
+package com.frcalderon.products.reactive;
+
+import com.frcalderon.products.config.CatalogChangeProperties;
+import com.frcalderon.products.config.OutboxProperties;
+import com.frcalderon.products.config.StockMovementProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Refuses to start the reactive profile while features it does not feed are enabled. Reactive
+ * writes go straight through R2DBC: they append no outbox events, record no stock movements, and
+ * are neither stamped for the change feed nor tombstoned, so consumers of those features would
+ * silently miss them.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveFeatureGuard {
+
+    public ReactiveFeatureGuard(OutboxProperties outboxProperties,
+                                StockMovementProperties stockMovementProperties,
+                                CatalogChangeProperties catalogChangeProperties) {
+        List<String> enabled = new ArrayList<>();
+
+        if (outboxProperties.isEnabled()) {
+            enabled.add("sweetify.outbox.enabled");
+        }
+        if (stockMovementProperties.isEnabled()) {
+            enabled.add("sweetify.stock.movements.enabled");
+        }
+        if (catalogChangeProperties.isEnabled()) {
+            enabled.add("sweetify.changes.enabled");
+        }
+
+        if (!enabled.isEmpty()) {
+            throw new IllegalStateException("The reactive profile does not write outbox events, stock movements or catalog changes; set "
+                    + String.join(", ", enabled) + " to false to run it");
+        }
+    }
+}
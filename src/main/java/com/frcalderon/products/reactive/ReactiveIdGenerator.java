@@ -0,0 +1,25 @@
+package com.frcalderon.products.reactive;
+
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Draws ids from the sequences Hibernate uses for the same tables. Each value is the upper bound
+ * of a pooled block Hibernate never hands out, so ids from both stacks cannot collide.
+ */
+@Component
+@Profile("reactive")
+@AllArgsConstructor
+public class ReactiveIdGenerator {
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<Long> next(String sequenceName) {
+        return databaseClient.sql("SELECT nextval('" + sequenceName + "')")
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+}
@@ -0,0 +1,74 @@
+package com.frcalderon.products.reactive;
+
+import com.frcalderon.products.controller.dto.IngredientRequest;
+import com.frcalderon.products.controller.dto.IngredientResponse;
+import com.frcalderon.products.controller.dto.IngredientStockRequest;
+import com.frcalderon.products.controller.dto.PageResponse;
+import com.frcalderon.products.model.Ingredient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/ingredients")
+@Profile("reactive")
+public class ReactiveIngredientController {
+
+    @Autowired
+    private ReactiveIngredientService ingredientService;
+
+    @GetMapping
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<PageResponse<IngredientResponse>> getAllIngredients(@RequestParam(defaultValue = "0") Long after,
+                                                                    @RequestParam(defaultValue = "100") Integer limit) {
+        return this.ingredientService.getAllIngredients(after, limit)
+                .map(ingredients -> new PageResponse<>(ingredients, IngredientResponse::new, Ingredient::getId));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public Flux<IngredientResponse> streamIngredients(@RequestParam(defaultValue = "0") Long after,
+                                                      @RequestParam(defaultValue = "100") Integer limit) {
+        return this.ingredientService.streamIngredients(after, limit).map(IngredientResponse::new);
+    }
+
+    @GetMapping("/{id}")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<IngredientResponse> getIngredient(@PathVariable Long id) {
+        return this.ingredientService.getIngredient(id).map(IngredientResponse::new);
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<IngredientResponse> createIngredient(@RequestBody IngredientRequest ingredientRequest) {
+        return this.ingredientService.createIngredient(ingredientRequest).map(IngredientResponse::new);
+    }
+
+    @PutMapping("/{id}")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<IngredientResponse> updateIngredient(@PathVariable Long id, @RequestBody IngredientRequest ingredientRequest) {
+        return this.ingredientService.updateIngredient(id, ingredientRequest).map(IngredientResponse::new);
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> deleteIngredient(@PathVariable Long id) {
+        return this.ingredientService.deleteIngredient(id);
+    }
+
+    @PostMapping("/stock/add")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<IngredientResponse> addStockToIngredient(@RequestBody IngredientStockRequest ingredientStockRequest) {
+        return this.ingredientService.addStockToIngredient(ingredientStockRequest).map(IngredientResponse::new);
+    }
+
+    @PostMapping("/stock/consume")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<IngredientResponse> consumeStockFromIngredient(@RequestBody IngredientStockRequest ingredientStockRequest) {
+        return this.ingredientService.consumeStockFromIngredient(ingredientStockRequest).map(IngredientResponse::new);
+    }
+}
@@ -0,0 +1,16 @@
+package com.frcalderon.products.reactive;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveIngredientRepository extends R2dbcRepository<IngredientRow, Long> {
+
+    @Query("SELECT * FROM ingredient WHERE id > :after ORDER BY id LIMIT :limit")
+    Flux<IngredientRow> findPage(Long after, int limit);
+
+    @Query("UPDATE ingredient SET stock = COALESCE(stock, 0) + :delta, version = version + 1, " +
+            "changed_at = now() WHERE id = :id RETURNING *")
+    Mono<IngredientRow> addStock(Long id, Double delta);
+}
@@ -0,0 +1,128 @@
+package com.frcalderon.products.reactive;
+
+import com.frcalderon.products.controller.dto.IngredientRequest;
+import com.frcalderon.products.controller.dto.IngredientStockRequest;
+import com.frcalderon.products.exceptions.IngredientHasProductsAssignedException;
+import com.frcalderon.products.exceptions.IngredientNotFoundException;
+import com.frcalderon.products.model.Ingredient;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+@Service
+@Profile("reactive")
+public class ReactiveIngredientService {
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private final ReactiveIngredientRepository ingredientRepository;
+
+    private final ReactiveProductIngredientRepository productIngredientRepository;
+
+    private final R2dbcEntityTemplate entityTemplate;
+
+    private final ReactiveIdGenerator idGenerator;
+
+    private final TransactionalOperator transactionalOperator;
+
+    public ReactiveIngredientService(ReactiveIngredientRepository ingredientRepository,
+                                     ReactiveProductIngredientRepository productIngredientRepository,
+                                     R2dbcEntityTemplate entityTemplate,
+                                     ReactiveIdGenerator idGenerator,
+                                     ConnectionFactory connectionFactory) {
+        this.ingredientRepository = ingredientRepository;
+        this.productIngredientRepository = productIngredientRepository;
+        this.entityTemplate = entityTemplate;
+        this.idGenerator = idGenerator;
+        this.transactionalOperator = TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+    }
+
+    public Mono<Slice<Ingredient>> getAllIngredients(Long after, int limit) {
+        PageRequest pageRequest = PageRequest.of(0, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)), Sort.by("id"));
+
+        return ingredientRepository.findPage(after, pageRequest.getPageSize() + 1)
+                .map(IngredientRow::toIngredient)
+                .collectList()
+                .map(ingredients -> {
+                    boolean hasNext = ingredients.size() > pageRequest.getPageSize();
+                    return new SliceImpl<>(hasNext ? ingredients.subList(0, pageRequest.getPageSize()) : ingredients, pageRequest, hasNext);
+                });
+    }
+
+    public Flux<Ingredient> streamIngredients(Long after, int limit) {
+        return ingredientRepository.findPage(after, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)))
+                .map(IngredientRow::toIngredient);
+    }
+
+    public Mono<Ingredient> getIngredient(Long id) {
+        return ingredientRepository.findById(id)
+                .switchIfEmpty(Mono.error(IngredientNotFoundException::new))
+                .map(IngredientRow::toIngredient);
+    }
+
+    public Mono<Ingredient> createIngredient(IngredientRequest ingredientRequest) {
+        return idGenerator.next("ingredient_seq")
+                .flatMap(id -> entityTemplate.insert(new IngredientRow(
+                        id,
+                        ingredientRequest.getName(),
+                        ingredientRequest.getUnits(),
+                        ingredientRequest.getStock(),
+                        ingredientRequest.getReorderThreshold(),
+                        null
+                )))
+                .map(IngredientRow::toIngredient);
+    }
+
+    public Mono<Ingredient> updateIngredient(Long id, IngredientRequest ingredientRequest) {
+        return ingredientRepository.findById(id)
+                .switchIfEmpty(Mono.error(IngredientNotFoundException::new))
+                .flatMap(ingredient -> ingredientRepository.save(new IngredientRow(
+                        id,
+                        ingredientRequest.getName(),
+                        ingredientRequest.getUnits(),
+                        ingredientRequest.getStock(),
+                        ingredientRequest.getReorderThreshold(),
+                        ingredient.version()
+                )))
+                .map(IngredientRow::toIngredient);
+    }
+
+    public Mono<Void> deleteIngredient(Long id) {
+        return ingredientRepository.existsById(id)
+                .flatMap(exists -> exists ? productIngredientRepository.existsByIngredientId(id) : Mono.error(new IngredientNotFoundException()))
+                .flatMap(assigned -> assigned ? Mono.error(new IngredientHasProductsAssignedException()) : ingredientRepository.deleteById(id));
+    }
+
+    public Mono<Ingredient> addStockToIngredient(IngredientStockRequest ingredientStockRequest) {
+        return addStock(ingredientStockRequest.getIngredientId(), ingredientStockRequest.getStock());
+    }
+
+    public Mono<Ingredient> consumeStockFromIngredient(IngredientStockRequest ingredientStockRequest) {
+        return addStock(ingredientStockRequest.getIngredientId(), -ingredientStockRequest.getStock());
+    }
+
+    public Mono<Void> applyStockDeltas(Map<Long, Double> stockDeltas) {
+        return Flux.fromIterable(new TreeMap<>(stockDeltas).entrySet())
+                .concatMap(stockDelta -> addStock(stockDelta.getKey(), stockDelta.getValue()))
+                .then()
+                .as(transactionalOperator::transactional);
+    }
+
+    private Mono<Ingredient> addStock(Long id, double delta) {
+        return ingredientRepository.addStock(id, delta)
+                .switchIfEmpty(Mono.error(IngredientNotFoundException::new))
+                .map(IngredientRow::toIngredient);
+    }
+}
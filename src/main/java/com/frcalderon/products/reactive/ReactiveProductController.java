@@ -0,0 +1,82 @@
+package com.frcalderon.products.reactive;
+
+import com.frcalderon.products.controller.dto.ManageProductsRequest;
+import com.frcalderon.products.controller.dto.PageResponse;
+import com.frcalderon.products.controller.dto.ProductRequest;
+import com.frcalderon.products.controller.dto.ProductResponse;
+import com.frcalderon.products.model.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/products")
+@Profile("reactive")
+public class ReactiveProductController {
+
+    @Autowired
+    private ReactiveProductService productService;
+
+    @GetMapping
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<PageResponse<ProductResponse>> getAllProducts(@RequestParam(defaultValue = "0") Long after,
+                                                              @RequestParam(defaultValue = "100") Integer limit) {
+        return this.productService.getAllProducts(after, limit)
+                .map(products -> new PageResponse<>(products, ProductResponse::new, Product::getId));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public Flux<ProductResponse> streamProducts(@RequestParam(defaultValue = "0") Long after,
+                                                @RequestParam(defaultValue = "100") Integer limit) {
+        return this.productService.streamProducts(after, limit).map(ProductResponse::new);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public Flux<ProductResponse> exportProducts() {
+        return this.productService.exportProducts().map(ProductResponse::new);
+    }
+
+    @GetMapping("/{id}")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<ProductResponse> getProduct(@PathVariable Long id) {
+        return this.productService.getProduct(id).map(ProductResponse::new);
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<ProductResponse> createProduct(@RequestBody ProductRequest productRequest) {
+        return this.productService.createProduct(productRequest).map(ProductResponse::new);
+    }
+
+    @PutMapping("/{id}")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<ProductResponse> updateProduct(@PathVariable Long id, @RequestBody ProductRequest productRequest) {
+        return this.productService.updateProduct(id, productRequest).map(ProductResponse::new);
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> deleteProduct(@PathVariable Long id) {
+        return this.productService.deleteProduct(id);
+    }
+
+    @PostMapping("/stock/add")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<Void> addStockToProduct(@RequestBody List<ManageProductsRequest> manageProductsRequestList) {
+        return this.productService.addProducts(manageProductsRequestList);
+    }
+
+    @PostMapping("/stock/consume")
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<Void> consumeStockFromIngredient(@RequestBody List<ManageProductsRequest> manageProductsRequestList) {
+        return this.productService.consumeProducts(manageProductsRequestList);
+    }
+}
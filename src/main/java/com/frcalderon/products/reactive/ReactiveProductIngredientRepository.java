@@ -0,0 +1,20 @@
+package com.frcalderon.products.reactive;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+public interface ReactiveProductIngredientRepository extends R2dbcRepository<ProductIngredientRow, Long> {
+
+    Flux<ProductIngredientRow> findAllByProductIdIn(Collection<Long> productIds);
+
+    Mono<Boolean> existsByIngredientId(Long ingredientId);
+
+    @Modifying
+    @Query("DELETE FROM product_ingredient WHERE product_id = :productId")
+    Mono<Integer> deleteByProductId(Long productId);
+}
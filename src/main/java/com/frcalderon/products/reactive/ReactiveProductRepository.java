@@ -0,0 +1,14 @@
+package com.frcalderon.products.reactive;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+
+public interface ReactiveProductRepository extends R2dbcRepository<ProductRow, Long> {
+
+    @Query("SELECT * FROM product WHERE id > :after ORDER BY id LIMIT :limit")
+    Flux<ProductRow> findPage(Long after, int limit);
+
+    @Query("SELECT * FROM product ORDER BY id")
+    Flux<ProductRow> findAllOrderById();
+}
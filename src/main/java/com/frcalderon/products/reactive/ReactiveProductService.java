@@ -0,0 +1,229 @@
+package com.frcalderon.products.reactive;
+
+import com.frcalderon.products.controller.dto.ManageProductsRequest;
+import com.frcalderon.products.controller.dto.ProductIngredientRequest;
+import com.frcalderon.products.controller.dto.ProductRequest;
+import com.frcalderon.products.exceptions.IngredientNotFoundException;
+import com.frcalderon.products.exceptions.ProductNotFoundException;
+import com.frcalderon.products.model.Ingredient;
+import com.frcalderon.products.model.Product;
+import com.frcalderon.products.model.ProductIngredient;
+import com.frcalderon.products.service.StockDeltaAccumulator;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+@Profile("reactive")
+public class ReactiveProductService {
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private static final int EXPORT_BATCH_SIZE = 500;
+
+    private final ReactiveProductRepository productRepository;
+
+    private final ReactiveProductIngredientRepository productIngredientRepository;
+
+    private final ReactiveIngredientRepository ingredientRepository;
+
+    private final ReactiveIngredientService ingredientService;
+
+    private final R2dbcEntityTemplate entityTemplate;
+
+    private final ReactiveIdGenerator idGenerator;
+
+    private final TransactionalOperator transactionalOperator;
+
+    public ReactiveProductService(ReactiveProductRepository productRepository,
+                                  ReactiveProductIngredientRepository productIngredientRepository,
+                                  ReactiveIngredientRepository ingredientRepository,
+                                  ReactiveIngredientService ingredientService,
+                                  R2dbcEntityTemplate entityTemplate,
+                                  ReactiveIdGenerator idGenerator,
+                                  ConnectionFactory connectionFactory) {
+        this.productRepository = productRepository;
+        this.productIngredientRepository = productIngredientRepository;
+        this.ingredientRepository = ingredientRepository;
+        this.ingredientService = ingredientService;
+        this.entityTemplate = entityTemplate;
+        this.idGenerator = idGenerator;
+        this.transactionalOperator = TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+    }
+
+    public Mono<Slice<Product>> getAllProducts(Long after, int limit) {
+        PageRequest pageRequest = PageRequest.of(0, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)), Sort.by("id"));
+
+        return productRepository.findPage(after, pageRequest.getPageSize() + 1)
+                .collectList()
+                .flatMap(products -> {
+                    boolean hasNext = products.size() > pageRequest.getPageSize();
+                    return withIngredients(hasNext ? products.subList(0, pageRequest.getPageSize()) : products)
+                            .collectList()
+                            .map(content -> new SliceImpl<>(content, pageRequest, hasNext));
+                });
+    }
+
+    public Flux<Product> streamProducts(Long after, int limit) {
+        return productRepository.findPage(after, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)))
+                .buffer(EXPORT_BATCH_SIZE)
+                .concatMap(this::withIngredients);
+    }
+
+    public Flux<Product> exportProducts() {
+        return productRepository.findAllOrderById()
+                .buffer(EXPORT_BATCH_SIZE)
+                .concatMap(this::withIngredients);
+    }
+
+    public Mono<Product> getProduct(Long id) {
+        return productRepository.findById(id)
+                .switchIfEmpty(Mono.error(ProductNotFoundException::new))
+                .flatMap(product -> withIngredients(List.of(product)).next());
+    }
+
+    public Mono<Product> createProduct(ProductRequest productRequest) {
+        return validateIngredients(productRequest.getProductIngredientList())
+                .then(idGenerator.next("product_seq"))
+                .flatMap(id -> entityTemplate.insert(new ProductRow(
+                        id,
+                        productRequest.getName(),
+                        productRequest.getDescription(),
+                        productRequest.getPrice(),
+                        null
+                )))
+                .flatMap(product -> saveRecipe(product.id(), productRequest.getProductIngredientList()).thenReturn(product.id()))
+                .as(transactionalOperator::transactional)
+                .flatMap(this::getProduct);
+    }
+
+    public Mono<Product> updateProduct(Long id, ProductRequest productRequest) {
+        return productRepository.findById(id)
+                .switchIfEmpty(Mono.error(ProductNotFoundException::new))
+                .flatMap(product -> validateIngredients(productRequest.getProductIngredientList())
+                        .then(productRepository.save(new ProductRow(
+                                id,
+                                productRequest.getName(),
+                                productRequest.getDescription(),
+                                productRequest.getPrice(),
+                                product.version()
+                        ))))
+                .then(productIngredientRepository.deleteByProductId(id))
+                .then(saveRecipe(id, productRequest.getProductIngredientList()))
+                .as(transactionalOperator::transactional)
+                .then(getProduct(id));
+    }
+
+    public Mono<Void> deleteProduct(Long id) {
+        return productRepository.existsById(id)
+                .flatMap(exists -> exists ? productIngredientRepository.deleteByProductId(id) : Mono.error(new ProductNotFoundException()))
+                .then(productRepository.deleteById(id))
+                .as(transactionalOperator::transactional);
+    }
+
+    public Mono<Void> addProducts(List<ManageProductsRequest> addProductsRequestList) {
+        return aggregateIngredientDeltas(addProductsRequestList, 1).flatMap(ingredientService::applyStockDeltas);
+    }
+
+    public Mono<Void> consumeProducts(List<ManageProductsRequest> consumeProductsRequestList) {
+        return aggregateIngredientDeltas(consumeProductsRequestList, -1).flatMap(ingredientService::applyStockDeltas);
+    }
+
+    private Flux<Product> withIngredients(List<ProductRow> products) {
+        if (products.isEmpty()) {
+            return Flux.empty();
+        }
+
+        List<Long> productIds = products.stream().map(ProductRow::id).toList();
+
+        return productIngredientRepository.findAllByProductIdIn(productIds)
+                .collectList()
+                .flatMapMany(lines -> ingredientRepository.findAllById(lines.stream().map(ProductIngredientRow::ingredientId).distinct().toList())
+                        .collectMap(IngredientRow::id, IngredientRow::toIngredient)
+                        .flatMapMany(ingredients -> Flux.fromIterable(products).map(product -> toProduct(product, lines, ingredients))));
+    }
+
+    private Product toProduct(ProductRow productRow, List<ProductIngredientRow> lines, Map<Long, Ingredient> ingredients) {
+        Product product = Product.builder()
+                .id(productRow.id())
+                .name(productRow.name())
+                .description(productRow.description())
+                .price(productRow.price())
+                .build();
+
+        List<ProductIngredient> productIngredients = new ArrayList<>();
+        for (ProductIngredientRow line : lines) {
+            if (line.productId().equals(productRow.id())) {
+                productIngredients.add(ProductIngredient.builder()
+                        .id(line.id())
+                        .product(product)
+                        .ingredient(ingredients.get(line.ingredientId()))
+                        .quantity(line.quantity())
+                        .build());
+            }
+        }
+        product.setIngredients(productIngredients);
+
+        return product;
+    }
+
+    private Mono<Void> validateIngredients(List<ProductIngredientRequest> productIngredientRequestList) {
+        Set<Long> ingredientIds = new HashSet<>();
+        for (ProductIngredientRequest productIngredient : productIngredientRequestList) {
+            ingredientIds.add(productIngredient.getIngredientId());
+        }
+
+        return ingredientRepository.findAllById(ingredientIds)
+                .count()
+                .flatMap(found -> found == ingredientIds.size() ? Mono.empty() : Mono.error(new IngredientNotFoundException()));
+    }
+
+    private Mono<Void> saveRecipe(Long productId, List<ProductIngredientRequest> productIngredientRequestList) {
+        return Flux.fromIterable(productIngredientRequestList)
+                .concatMap(productIngredient -> idGenerator.next("product_ingredient_seq")
+                        .flatMap(id -> entityTemplate.insert(new ProductIngredientRow(
+                                id,
+                                productId,
+                                productIngredient.getIngredientId(),
+                                productIngredient.getQuantity()
+                        ))))
+                .then();
+    }
+
+    private Mono<Map<Long, Double>> aggregateIngredientDeltas(List<ManageProductsRequest> manageProductsRequestList, int sign) {
+        Map<Long, Integer> quantityByProduct = new HashMap<>();
+        for (ManageProductsRequest product : manageProductsRequestList) {
+            quantityByProduct.merge(product.getProductId(), product.getQuantity(), Integer::sum);
+        }
+
+        if (quantityByProduct.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+
+        return productRepository.findAllById(quantityByProduct.keySet())
+                .count()
+                .flatMap(found -> found == quantityByProduct.size() ? Mono.empty() : Mono.error(new ProductNotFoundException()))
+                .then(productIngredientRepository.findAllByProductIdIn(quantityByProduct.keySet())
+                        .reduce(new StockDeltaAccumulator(), (stockDeltas, line) -> {
+                            stockDeltas.add(line.ingredientId(), sign * quantityByProduct.get(line.productId()) * line.quantity());
+                            return stockDeltas;
+                        }))
+                .map(StockDeltaAccumulator::toMap);
+    }
+}
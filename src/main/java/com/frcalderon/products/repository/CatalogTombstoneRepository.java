@@ -0,0 +1,34 @@
+package com.frcalderon.products.repository;
+
+import com.frcalderon.products.model.CatalogTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CatalogTombstoneRepository extends JpaRepository<CatalogTombstone, Long> {
+
+    @Query("select t from CatalogTombstone t where t.changeSeq > :since and t.changeSeq < :before order by t.changeSeq")
+    List<CatalogTombstone> findChanges(@Param("since") Long since, @Param("before") Long before, Pageable pageable);
+
+    @Modifying
+    @Query(value = "INSERT INTO catalog_tombstone (change_seq, entity_type, entity_id, changed_at) " +
+            "SELECT nextval('catalog_change_seq'), 'PRODUCT_INGREDIENT', id, now() FROM product_ingredient WHERE product_id = :productId", nativeQuery = true)
+    int insertForRecipeLines(@Param("productId") Long productId);
+
+    @Query(value = "SELECT last_value FROM catalog_change_seq", nativeQuery = true)
+    long findLastChangeSeq();
+
+    /**
+     * Lowest change window still held by an open transaction, or null when there is none.
+     */
+    @Query(value = "SELECT MIN(((CAST(l.classid AS bigint) << 32) | CAST(l.objid AS bigint)) & 281474976710655) FROM pg_locks l " +
+            "WHERE l.locktype = 'advisory' AND l.objsubid = 1 AND CAST(l.classid AS bigint) >> 16 = :namespace " +
+            "AND l.database = (SELECT oid FROM pg_database WHERE datname = current_database())", nativeQuery = true)
+    Long findOldestOpenWindow(@Param("namespace") long namespace);
+}
@@ -1,9 +1,48 @@
 package com.frcalderon.products.repository;
 
 import com.frcalderon.products.model.Ingredient;
+import com.frcalderon.products.model.IngredientChange;
+import com.frcalderon.products.model.IngredientStock;
+import com.frcalderon.products.model.LowStockIngredient;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface IngredientRepository extends JpaRepository<Ingredient, Long> {
+public interface IngredientRepository extends JpaRepository<Ingredient, Long>, IngredientStockRepository {
+
+    Slice<Ingredient> findByIdGreaterThan(Long id, Pageable pageable);
+
+    @Query("select new com.frcalderon.products.model.IngredientStock(i.id, i.stock) from Ingredient i")
+    List<IngredientStock> findAllStock();
+
+    @Query("select new com.frcalderon.products.model.LowStockIngredient(i.id, i.name, i.units, i.stock, i.reorderThreshold, i.version) " +
+            "from Ingredient i")
+    List<LowStockIngredient> findAllStockLevels();
+
+    @Query("select new com.frcalderon.products.model.IngredientChange(i.changeSeq, i.id, i.name, i.units, i.stock, i.reorderThreshold) " +
+            "from Ingredient i where i.changeSeq > :since and i.changeSeq < :before order by i.changeSeq")
+    List<IngredientChange> findChanges(@Param("since") Long since, @Param("before") Long before, Pageable pageable);
+
+    boolean existsByChangeSeqIsNull();
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE ingredient SET changed_at = now() WHERE change_seq IS NULL", nativeQuery = true)
+    int backfillChangeSeq();
+
+    @Query(value = "SELECT md5(COALESCE(string_agg(i.id || ':' || COALESCE(i.version, 0), ',' ORDER BY i.id), '')) " +
+            "FROM (SELECT id, version FROM ingredient WHERE id > :after ORDER BY id LIMIT :limit) i", nativeQuery = true)
+    String findPageDigest(@Param("after") Long after, @Param("limit") int limit);
+
+    @Query("select i.version from Ingredient i where i.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
 }
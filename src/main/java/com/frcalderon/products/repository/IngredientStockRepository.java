@@ -0,0 +1,15 @@
+package com.frcalderon.products.repository;
+
+import com.frcalderon.products.model.Ingredient;
+
+import java.util.Optional;
+
+public interface IngredientStockRepository {
+
+    /**
+     * Adds {@code delta} to the stock of an ingredient in a single atomic statement, treating a
+     * missing stock as zero, and returns the row as written. Returns empty when the ingredient does
+     * not exist.
+     */
+    Optional<Ingredient> addStock(Long id, Double delta);
+}
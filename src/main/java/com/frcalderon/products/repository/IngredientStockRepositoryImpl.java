@@ -0,0 +1,38 @@
+package com.frcalderon.products.repository;
+
+import com.frcalderon.products.model.Ingredient;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+class IngredientStockRepositoryImpl implements IngredientStockRepository {
+
+    private static final String ADD_STOCK = "UPDATE ingredient SET stock = COALESCE(stock, 0) + :delta, version = version + 1, " +
+            "changed_at = now() WHERE id = :id RETURNING *";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Pending changes are flushed first so the update sees them, and any instance of the ingredient
+     * already in the persistence context is detached: Hibernate would otherwise hand back that
+     * instance, with its stale stock and version, instead of the returned row.
+     */
+    @Override
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public Optional<Ingredient> addStock(Long id, Double delta) {
+        entityManager.flush();
+        entityManager.detach(entityManager.getReference(Ingredient.class, id));
+
+        List<Ingredient> updated = entityManager.createNativeQuery(ADD_STOCK, Ingredient.class)
+                .setParameter("id", id)
+                .setParameter("delta", delta)
+                .getResultList();
+
+        return updated.stream().findFirst();
+    }
+}
@@ -1,9 +1,17 @@
 package com.frcalderon.products.repository;
 
 import com.frcalderon.products.model.ProductIngredient;
+import com.frcalderon.products.model.ProductIngredientChange;
+import com.frcalderon.products.model.RecipeLine;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -13,5 +21,26 @@ public interface ProductIngredientRepository extends JpaRepository<ProductIngred
 
     List<ProductIngredient> findAllByProductId(Long productId);
 
+    boolean existsByIngredientId(Long ingredientId);
+
+    @Query("select new com.frcalderon.products.model.RecipeLine(pi.product.id, pi.ingredient.id, pi.quantity) " +
+            "from ProductIngredient pi")
+    List<RecipeLine> findAllRecipeLines();
+
+    @Query("select new com.frcalderon.products.model.RecipeLine(pi.product.id, pi.ingredient.id, pi.quantity) " +
+            "from ProductIngredient pi where pi.product.id in :productIds")
+    List<RecipeLine> findRecipeLinesByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+    @Query("select new com.frcalderon.products.model.ProductIngredientChange(pi.changeSeq, pi.id, pi.product.id, pi.ingredient.id, pi.quantity) " +
+            "from ProductIngredient pi where pi.changeSeq > :since and pi.changeSeq < :before order by pi.changeSeq")
+    List<ProductIngredientChange> findChanges(@Param("since") Long since, @Param("before") Long before, Pageable pageable);
+
+    boolean existsByChangeSeqIsNull();
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE product_ingredient SET changed_at = now() WHERE change_seq IS NULL", nativeQuery = true)
+    int backfillChangeSeq();
+
     void deleteByProductId(Long productId);
 }
@@ -1,9 +1,81 @@
 package com.frcalderon.products.repository;
 
 import com.frcalderon.products.model.Product;
+import com.frcalderon.products.model.ProductChange;
+import com.frcalderon.products.model.ProductSearchDocument;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
+
+    @Query("select p.id from Product p where p.id > :id")
+    Slice<Long> findIdsByIdGreaterThan(@Param("id") Long id, Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p from Product p left join fetch p.ingredients pi left join fetch pi.ingredient order by p.id")
+    Stream<Product> streamAllWithIngredients();
+
+    @Query("select distinct p from Product p left join fetch p.ingredients pi left join fetch pi.ingredient " +
+            "where p.id in :ids order by p.id")
+    List<Product> findAllWithIngredientsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select distinct p from Product p left join fetch p.ingredients pi left join fetch pi.ingredient where p.id = :id")
+    Optional<Product> findByIdWithIngredients(@Param("id") Long id);
+
+    @Query("select p.id from Product p")
+    List<Long> findAllIds();
+
+    @Query("select p.id from Product p where p.id in :ids")
+    List<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select new com.frcalderon.products.model.ProductSearchDocument(p.id, p.name, p.description, p.price) from Product p")
+    List<ProductSearchDocument> findAllSearchDocuments();
+
+    @Query("select new com.frcalderon.products.model.ProductChange(p.changeSeq, p.id, p.name, p.description, p.price) " +
+            "from Product p where p.changeSeq > :since and p.changeSeq < :before order by p.changeSeq")
+    List<ProductChange> findChanges(@Param("since") Long since, @Param("before") Long before, Pageable pageable);
+
+    boolean existsByChangeSeqIsNull();
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE product SET changed_at = now() WHERE change_seq IS NULL", nativeQuery = true)
+    int backfillChangeSeq();
+
+    /**
+     * Digest of the id and version of each product in the page, and of its recipe lines and their
+     * ingredients' versions, suffixed with {@code -next} when a product follows the page. Changes
+     * whenever any of them is written, added or removed.
+     */
+    @Query(value = "SELECT md5(COALESCE(string_agg(p.id || ':' || COALESCE(p.version, 0) || ':' || COALESCE(pi.id, 0) || ':' || COALESCE(i.version, 0), ',' ORDER BY p.id, pi.id) FILTER (WHERE p.n <= :limit), '')) " +
+            "|| CASE WHEN max(p.n) > :limit THEN '-next' ELSE '' END " +
+            "FROM (SELECT id, version, row_number() OVER (ORDER BY id) AS n FROM product WHERE id > :after ORDER BY id LIMIT :limit + 1) p " +
+            "LEFT JOIN product_ingredient pi ON pi.product_id = p.id " +
+            "LEFT JOIN ingredient i ON i.id = pi.ingredient_id", nativeQuery = true)
+    String findPageDigest(@Param("after") Long after, @Param("limit") int limit);
+
+    @Query(value = "SELECT md5(string_agg(p.id || ':' || COALESCE(p.version, 0) || ':' || COALESCE(pi.id, 0) || ':' || COALESCE(i.version, 0), ',' ORDER BY pi.id)) " +
+            "FROM product p " +
+            "LEFT JOIN product_ingredient pi ON pi.product_id = p.id " +
+            "LEFT JOIN ingredient i ON i.id = pi.ingredient_id " +
+            "WHERE p.id = :id", nativeQuery = true)
+    Optional<String> findDigestById(@Param("id") Long id);
 }
@@ -0,0 +1,12 @@
+package com.frcalderon.products.repository;
+
+import com.frcalderon.products.model.StockMovement;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+
+    @Query("select coalesce(sum(m.delta), 0) from StockMovement m where m.ingredientId = :ingredientId and m.changeSeq >= :from")
+    double sumDeltaByIngredientIdAndChangeSeqFrom(@Param("ingredientId") Long ingredientId, @Param("from") long from);
+}
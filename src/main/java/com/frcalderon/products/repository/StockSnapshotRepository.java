@@ -0,0 +1,41 @@
+package com.frcalderon.products.repository;
+
+import com.frcalderon.products.model.StockSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface StockSnapshotRepository extends JpaRepository<StockSnapshot, Long> {
+
+    /**
+     * Folds every movement below {@code visibleBefore} into the per-ingredient snapshots. Snapshot
+     * stock is absolute, so concurrent runs are safe: the one with the highest horizon wins.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO stock_snapshot (ingredient_id, stock, folded_before, taken_at) " +
+            "SELECT m.ingredient_id, COALESCE(s.stock, 0) + SUM(m.delta), :visibleBefore, now() " +
+            "FROM stock_movement m LEFT JOIN stock_snapshot s ON s.ingredient_id = m.ingredient_id " +
+            "WHERE m.change_seq < :visibleBefore AND m.change_seq >= COALESCE(s.folded_before, 0) " +
+            "GROUP BY m.ingredient_id, s.stock " +
+            "ON CONFLICT (ingredient_id) DO UPDATE SET stock = EXCLUDED.stock, folded_before = EXCLUDED.folded_before, taken_at = EXCLUDED.taken_at " +
+            "WHERE stock_snapshot.folded_before < EXCLUDED.folded_before", nativeQuery = true)
+    int snapshot(@Param("visibleBefore") long visibleBefore);
+
+    /**
+     * Gives every ingredient without a usable snapshot one folded up to {@code visibleBefore},
+     * derived from its current stock minus the movements at or above it, so stock written before
+     * the movement ledger existed is not lost on replay.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO stock_snapshot (ingredient_id, stock, folded_before, taken_at) " +
+            "SELECT i.id, COALESCE(i.stock, 0) - COALESCE((SELECT SUM(m.delta) FROM stock_movement m " +
+            "WHERE m.ingredient_id = i.id AND m.change_seq >= :visibleBefore), 0), :visibleBefore, now() " +
+            "FROM ingredient i WHERE NOT EXISTS (SELECT 1 FROM stock_snapshot s WHERE s.ingredient_id = i.id AND s.folded_before IS NOT NULL) " +
+            "ON CONFLICT (ingredient_id) DO UPDATE SET stock = EXCLUDED.stock, folded_before = EXCLUDED.folded_before, taken_at = EXCLUDED.taken_at " +
+            "WHERE stock_snapshot.folded_before IS NULL", nativeQuery = true)
+    int seed(@Param("visibleBefore") long visibleBefore);
+}
@@ -0,0 +1,108 @@
+package com.frcalderon.products.service;
+
+import com.frcalderon.products.model.IngredientStock;
+import com.frcalderon.products.repository.IngredientRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Computes how many units of each product can be made as {@code min(stock / quantity)} over its
+ * recipe, from the in-memory {@link RecipeIndex} and one stock projection held in sorted primitive
+ * arrays. Large catalogs are evaluated in parallel.
+ */
+@Service
+@AllArgsConstructor
+public class AvailabilityService {
+
+    private static final int PARALLEL_THRESHOLD = 10_000;
+
+    private final RecipeIndex recipeIndex;
+
+    private final IngredientRepository ingredientRepository;
+
+    private final StockLedger stockLedger;
+
+    public List<ProductAvailability> getAvailability(Collection<Long> productIds) {
+        Map<Long, Recipe> recipes = productIds == null || productIds.isEmpty()
+                ? recipeIndex.getAllRecipes()
+                : recipeIndex.getRecipes(productIds);
+
+        int size = recipes.size();
+        long[] ids = new long[size];
+        Recipe[] recipeArray = new Recipe[size];
+        int i = 0;
+        for (Map.Entry<Long, Recipe> entry : recipes.entrySet()) {
+            ids[i] = entry.getKey();
+            recipeArray[i] = entry.getValue();
+            i++;
+        }
+
+        StockLevels stockLevels = loadStockLevels();
+        long[] available = new long[size];
+
+        IntStream indexes = IntStream.range(0, size);
+        if (size >= PARALLEL_THRESHOLD) {
+            indexes = indexes.parallel();
+        }
+        indexes.forEach(index -> available[index] = stockLevels.producible(recipeArray[index]));
+
+        List<ProductAvailability> availability = new ArrayList<>(size);
+        for (int index = 0; index < size; index++) {
+            availability.add(new ProductAvailability(ids[index], available[index] < 0 ? null : available[index]));
+        }
+        availability.sort((a, b) -> Long.compare(a.getProductId(), b.getProductId()));
+
+        return availability;
+    }
+
+    private StockLevels loadStockLevels() {
+        List<IngredientStock> ingredientStocks = ingredientRepository.findAllStock();
+        int size = ingredientStocks.size();
+
+        IngredientStock[] sorted = ingredientStocks.toArray(new IngredientStock[0]);
+        Arrays.sort(sorted, (a, b) -> Long.compare(a.getIngredientId(), b.getIngredientId()));
+
+        long[] ingredientIds = new long[size];
+        double[] stock = new double[size];
+        for (int i = 0; i < size; i++) {
+            ingredientIds[i] = sorted[i].getIngredientId();
+            Double pendingStock = stockLedger.isEnabled() ? stockLedger.getStock(ingredientIds[i]) : null;
+            stock[i] = pendingStock != null ? pendingStock : sorted[i].getStock() == null ? 0 : sorted[i].getStock();
+        }
+
+        return new StockLevels(ingredientIds, stock);
+    }
+
+    private record StockLevels(long[] ingredientIds, double[] stock) {
+
+        /**
+         * Returns the producible units for the recipe, or -1 when the recipe has no lines.
+         */
+        long producible(Recipe recipe) {
+            if (recipe.size() == 0) {
+                return -1;
+            }
+
+            double units = Double.MAX_VALUE;
+            for (int line = 0; line < recipe.size(); line++) {
+                double quantity = recipe.getQuantity(line);
+                if (quantity <= 0) {
+                    continue;
+                }
+
+                int slot = Arrays.binarySearch(ingredientIds, recipe.getIngredientId(line));
+                double available = slot < 0 ? 0 : stock[slot];
+                units = Math.min(units, available / quantity);
+            }
+
+            return units == Double.MAX_VALUE ? -1 : (long) Math.max(0, Math.floor(units));
+        }
+    }
+}
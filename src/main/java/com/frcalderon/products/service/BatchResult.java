@@ -0,0 +1,42 @@
+package com.frcalderon.products.service;
+
+import jakarta.validation.ConstraintViolation;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchResult<T> {
+
+    private int index;
+
+    private T item;
+
+    private String error;
+
+    public static <T> BatchResult<T> created(int index, T item) {
+        return new BatchResult<>(index, item, null);
+    }
+
+    public static <T> BatchResult<T> failed(int index, String error) {
+        return new BatchResult<>(index, null, error);
+    }
+
+    public static <T> BatchResult<T> failed(int index, Set<? extends ConstraintViolation<?>> violations) {
+        return failed(index, violations.stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", ")));
+    }
+
+    public boolean isCreated() {
+        return error == null;
+    }
+}
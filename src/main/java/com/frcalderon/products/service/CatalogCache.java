@@ -0,0 +1,105 @@
+package com.frcalderon.products.service;
+
+import com.frcalderon.products.config.CatalogCacheProperties;
+import com.frcalderon.products.model.Ingredient;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Single-ingredient lookups cached as immutable snapshots rather than live entities, so nothing a
+ * caller does to the returned ingredient can leak into the cache. Entries are evicted after the
+ * writing transaction commits; writes made by other pods are only picked up once the entry
+ * expires, see {@link CatalogCacheProperties}. Every eviction advances a generation, and a load
+ * that saw an eviction while it ran does not leave its result in the cache, so a read racing a
+ * write cannot put back the state the write replaced.
+ */
+@Component
+public class CatalogCache {
+
+    public static final String INGREDIENTS = "ingredients";
+
+    private final CacheManager cacheManager;
+
+    private final CatalogCacheProperties catalogCacheProperties;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    public CatalogCache(CacheManager cacheManager, CatalogCacheProperties catalogCacheProperties) {
+        this.cacheManager = cacheManager;
+        this.catalogCacheProperties = catalogCacheProperties;
+    }
+
+    public Ingredient getIngredient(Long ingredientId, Supplier<Ingredient> loader) {
+        Cache cache = catalogCacheProperties.isIngredients() ? cacheManager.getCache(INGREDIENTS) : null;
+
+        if (cache == null) {
+            return loader.get();
+        }
+
+        CachedIngredient cached = cache.get(ingredientId, CachedIngredient.class);
+        if (cached == null) {
+            long loadedAt = generation.get();
+            cached = CachedIngredient.of(loader.get());
+            cache.put(ingredientId, cached);
+
+            if (generation.get() != loadedAt) {
+                cache.evict(ingredientId);
+            }
+        }
+
+        return cached.toIngredient();
+    }
+
+    public void evictIngredient(Long ingredientId) {
+        evictIngredients(List.of(ingredientId));
+    }
+
+    /**
+     * Evicts the given ingredients once the current transaction commits, or immediately when there
+     * is none, so a read racing the write cannot put back the state it replaced.
+     */
+    public void evictIngredients(Collection<Long> ingredientIds) {
+        Cache cache = cacheManager.getCache(INGREDIENTS);
+
+        if (cache == null) {
+            return;
+        }
+
+        List<Long> evictedIds = List.copyOf(ingredientIds);
+        TransactionCallbacks.afterCommit(() -> {
+            generation.incrementAndGet();
+            evictedIds.forEach(cache::evict);
+        });
+    }
+
+    private record CachedIngredient(Long id, Long version, String name, String units, Double stock, Double reorderThreshold) {
+
+        static CachedIngredient of(Ingredient ingredient) {
+            return new CachedIngredient(
+                    ingredient.getId(),
+                    ingredient.getVersion(),
+                    ingredient.getName(),
+                    ingredient.getUnits(),
+                    ingredient.getStock(),
+                    ingredient.getReorderThreshold()
+            );
+        }
+
+        Ingredient toIngredient() {
+            return Ingredient.builder()
+                    .id(id)
+                    .version(version)
+                    .name(name)
+                    .units(units)
+                    .stock(stock)
+                    .reorderThreshold(reorderThreshold)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.frcalderon.products.service;
+
+import com.frcalderon.products.config.CatalogChangeProperties;
+import com.frcalderon.products.model.CatalogChangeWindow;
+import com.frcalderon.products.model.CatalogEntityType;
+import com.frcalderon.products.model.CatalogTombstone;
+import com.frcalderon.products.model.IngredientChange;
+import com.frcalderon.products.model.ProductChange;
+import com.frcalderon.products.model.ProductIngredientChange;
+import com.frcalderon.products.repository.CatalogTombstoneRepository;
+import com.frcalderon.products.repository.IngredientRepository;
+import com.frcalderon.products.repository.ProductIngredientRepository;
+import com.frcalderon.products.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Change feed for catalog replicas. Products, ingredients and recipe lines are stamped from one
+ * shared sequence on every write by {@link CatalogChangeTriggers}, and deletes leave tombstones
+ * stamped from the same sequence, so a replica that remembers the last sequence it applied only
+ * ever transfers what changed since. Every writing transaction opens a {@link CatalogChangeWindow}
+ * first, so a page never goes past a sequence that an open transaction may still commit.
+ */
+@Slf4j
+@Service
+@AllArgsConstructor
+public class CatalogChangeService {
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private final ProductRepository productRepository;
+
+    private final IngredientRepository ingredientRepository;
+
+    private final ProductIngredientRepository productIngredientRepository;
+
+    private final CatalogTombstoneRepository catalogTombstoneRepository;
+
+    private final EntityManager entityManager;
+
+    private final CatalogChangeProperties catalogChangeProperties;
+
+    /**
+     * Runs at read committed so the change queries see everything committed before the window
+     * horizon was read.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.READ_COMMITTED)
+    public CatalogChanges getChanges(Long since, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long before = visibleBefore();
+        Pageable lookahead = PageRequest.of(0, pageSize + 1);
+
+        List<ProductChange> products = productRepository.findChanges(since, before, lookahead);
+        List<IngredientChange> ingredients = ingredientRepository.findChanges(since, before, lookahead);
+        List<ProductIngredientChange> productIngredients = productIngredientRepository.findChanges(since, before, lookahead);
+        List<CatalogTombstone> deleted = catalogTombstoneRepository.findChanges(since, before, lookahead);
+
+        long[] changeSeqs = Stream.of(
+                        products.stream().map(ProductChange::getChangeSeq),
+                        ingredients.stream().map(IngredientChange::getChangeSeq),
+                        productIngredients.stream().map(ProductIngredientChange::getChangeSeq),
+                        deleted.stream().map(CatalogTombstone::getChangeSeq)
+                )
+                .flatMap(Function.identity())
+                .mapToLong(Long::longValue)
+                .sorted()
+                .toArray();
+
+        if (changeSeqs.length == 0) {
+            return new CatalogChanges(List.of(), List.of(), List.of(), List.of(), since, false);
+        }
+
+        // Each source returned its first pageSize + 1 changes, so the pageSize lowest sequences
+        // overall are all among them.
+        long nextSince = changeSeqs[Math.min(changeSeqs.length, pageSize) - 1];
+
+        return new CatalogChanges(
+                upTo(products, ProductChange::getChangeSeq, nextSince),
+                upTo(ingredients, IngredientChange::getChangeSeq, nextSince),
+                upTo(productIngredients, ProductIngredientChange::getChangeSeq, nextSince),
+                upTo(deleted, CatalogTombstone::getChangeSeq, nextSince),
+                nextSince,
+                changeSeqs.length > pageSize
+        );
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeleted(CatalogEntityType entityType, Long entityId) {
+        if (!catalogChangeProperties.isEnabled()) {
+            return;
+        }
+
+        CatalogChangeWindow.open(entityManager);
+        catalogTombstoneRepository.save(CatalogTombstone.builder()
+                .entityType(entityType)
+                .entityId(entityId)
+                .changedAt(Instant.now())
+                .build());
+    }
+
+    /**
+     * Leaves a tombstone for every recipe line of the product; call it before the lines are deleted.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordRecipeDeleted(Long productId) {
+        if (!catalogChangeProperties.isEnabled()) {
+            return;
+        }
+
+        CatalogChangeWindow.open(entityManager);
+        catalogTombstoneRepository.insertForRecipeLines(productId);
+    }
+
+    /**
+     * Touches the rows without a change sequence, written before the feed existed or while it was
+     * disabled, so the stamping trigger gives them one.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfill() {
+        if (!catalogChangeProperties.isEnabled()) {
+            return;
+        }
+
+        int stamped = 0;
+
+        if (productRepository.existsByChangeSeqIsNull()) {
+            stamped += productRepository.backfillChangeSeq();
+        }
+
+        if (ingredientRepository.existsByChangeSeqIsNull()) {
+            stamped += ingredientRepository.backfillChangeSeq();
+        }
+
+        if (productIngredientRepository.existsByChangeSeqIsNull()) {
+            stamped += productIngredientRepository.backfillChangeSeq();
+        }
+
+        if (stamped > 0) {
+            log.info("Assigned change sequences to {} catalog rows written while the change feed was off", stamped);
+        }
+    }
+
+    /**
+     * Whether the database holds change windows, so {@link #visibleBefore()} can be computed.
+     */
+    public boolean isWindowed() {
+        return CatalogChangeWindow.isPostgreSQL(entityManager.getEntityManagerFactory());
+    }
+
+    /**
+     * Change sequence below which every write is committed or rolled back, so nothing can still
+     * appear there. The last value of the sequence is read before the open windows: a transaction
+     * that draws its window afterwards only writes above that value, and one that drew it earlier
+     * is either still holding its window or already committed. PostgreSQL only.
+     */
+    public long visibleBefore() {
+        long horizon = catalogTombstoneRepository.findLastChangeSeq() + 1;
+        Long oldestOpenWindow = catalogTombstoneRepository.findOldestOpenWindow(CatalogChangeWindow.NAMESPACE);
+
+        return oldestOpenWindow == null ? horizon : Math.min(horizon, oldestOpenWindow);
+    }
+
+    private static <T> List<T> upTo(List<T> changes, Function<T, Long> changeSeq, long nextSince) {
+        return changes.stream().filter(change -> changeSeq.apply(change) <= nextSince).toList();
+    }
+}
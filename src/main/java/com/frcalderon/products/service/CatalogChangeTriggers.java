@@ -0,0 +1,104 @@
+package com.frcalderon.products.service;
+
+import com.frcalderon.products.config.CatalogChangeProperties;
+import com.frcalderon.products.config.StockMovementProperties;
+import com.frcalderon.products.model.CatalogChangeWindow;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stamps products, ingredients and recipe lines with their change sequence in the database. A
+ * {@code BEFORE INSERT OR UPDATE} trigger opens the transaction's {@link CatalogChangeWindow} and
+ * assigns the next value of {@code catalog_change_seq}, so stamping costs no extra round trip and
+ * leaves JDBC batching alone. The triggers are dropped while the change feed is disabled, so writes
+ * then skip stamping altogether. Stock movements are stamped the same way on insert while they are
+ * recorded, which orders them for snapshots. PostgreSQL only.
+ */
+@Component
+public class CatalogChangeTriggers {
+
+    private static final String TRIGGER_NAME = "catalog_change_stamp";
+
+    private static final String WINDOW_SETTING = "sweetify.catalog_change_window";
+
+    private static final List<String> TABLES = List.of("product", "ingredient", "product_ingredient");
+
+    private static final String MOVEMENT_TABLE = "stock_movement";
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final CatalogChangeProperties catalogChangeProperties;
+
+    private final StockMovementProperties stockMovementProperties;
+
+    private final boolean postgreSQL;
+
+    public CatalogChangeTriggers(EntityManagerFactory entityManagerFactory,
+                                 EntityManager entityManager,
+                                 PlatformTransactionManager transactionManager,
+                                 CatalogChangeProperties catalogChangeProperties,
+                                 StockMovementProperties stockMovementProperties) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.catalogChangeProperties = catalogChangeProperties;
+        this.stockMovementProperties = stockMovementProperties;
+        this.postgreSQL = CatalogChangeWindow.isPostgreSQL(entityManagerFactory);
+    }
+
+    /**
+     * Runs once the schema is up to date and before any request is served. Everything happens in
+     * one transaction under an advisory lock, so instances starting together do not interleave
+     * their drops and creates.
+     */
+    @PostConstruct
+    public void install() {
+        if (!postgreSQL) {
+            return;
+        }
+
+        List<String> statements = new ArrayList<>();
+        statements.add("SELECT pg_advisory_xact_lock(" + (CatalogChangeWindow.NAMESPACE << 48) + ")");
+        statements.add("CREATE OR REPLACE FUNCTION " + CatalogChangeWindow.FUNCTION_NAME + "() RETURNS void LANGUAGE plpgsql AS $$ BEGIN " +
+                "IF current_setting('" + WINDOW_SETTING + "', true) IS DISTINCT FROM 'open' THEN " +
+                "PERFORM pg_advisory_xact_lock((" + CatalogChangeWindow.NAMESPACE + "::bigint << 48) | nextval('" + CatalogChangeWindow.SEQUENCE_NAME + "')); " +
+                "PERFORM set_config('" + WINDOW_SETTING + "', 'open', true); " +
+                "END IF; END $$");
+        statements.add("CREATE OR REPLACE FUNCTION " + TRIGGER_NAME + "() RETURNS trigger LANGUAGE plpgsql AS $$ BEGIN " +
+                "PERFORM " + CatalogChangeWindow.FUNCTION_NAME + "(); " +
+                "NEW.change_seq := nextval('" + CatalogChangeWindow.SEQUENCE_NAME + "'); " +
+                "RETURN NEW; END $$");
+
+        for (String table : TABLES) {
+            statements.add("DROP TRIGGER IF EXISTS " + TRIGGER_NAME + " ON " + table);
+            if (catalogChangeProperties.isEnabled()) {
+                statements.add("CREATE TRIGGER " + TRIGGER_NAME + " BEFORE INSERT OR UPDATE ON " + table +
+                        " FOR EACH ROW EXECUTE FUNCTION " + TRIGGER_NAME + "()");
+            }
+        }
+
+        statements.add("DROP TRIGGER IF EXISTS " + TRIGGER_NAME + " ON " + MOVEMENT_TABLE);
+        if (stockMovementProperties.isEnabled()) {
+            statements.add("CREATE TRIGGER " + TRIGGER_NAME + " BEFORE INSERT ON " + MOVEMENT_TABLE +
+                    " FOR EACH ROW EXECUTE FUNCTION " + TRIGGER_NAME + "()");
+        }
+
+        transactionTemplate.executeWithoutResult(status -> entityManager.unwrap(Session.class).doWork(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : statements) {
+                    statement.execute(sql);
+                }
+            }
+        }));
+    }
+}
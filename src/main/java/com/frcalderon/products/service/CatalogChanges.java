@@ -0,0 +1,36 @@
+package com.frcalderon.products.service;
+
+import com.frcalderon.products.model.CatalogTombstone;
+import com.frcalderon.products.model.IngredientChange;
+import com.frcalderon.products.model.ProductChange;
+import com.frcalderon.products.model.ProductIngredientChange;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of the catalog change feed: the current state of every row written after the cursor,
+ * and the rows deleted after it. Replicas apply the upserts, then the deletes, and resume from
+ * {@code nextSince}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogChanges {
+
+    private List<ProductChange> products;
+
+    private List<IngredientChange> ingredients;
+
+    private List<ProductIngredientChange> productIngredients;
+
+    private List<CatalogTombstone> deleted;
+
+    private Long nextSince;
+
+    private boolean hasMore;
+}
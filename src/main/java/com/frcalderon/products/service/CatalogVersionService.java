@@ -0,0 +1,139 @@
+package com.frcalderon.products.service;
+
+import com.frcalderon.products.model.Ingredient;
+import com.frcalderon.products.model.Product;
+import com.frcalderon.products.model.ProductIngredient;
+import com.frcalderon.products.repository.IngredientRepository;
+import com.frcalderon.products.repository.ProductRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Strong ETags for catalog reads, derived in the database from the {@code @Version} columns that
+ * every write in {@link ProductService} and {@link IngredientService} already bumps. No entity is
+ * loaded, so a conditional GET that ends in 304 costs one narrow query. A null ETag means the
+ * response cannot be validated this way and must be rendered in full, which is the case for
+ * ingredients while the stock ledger holds unversioned pending stock.
+ */
+@Service
+@AllArgsConstructor
+public class CatalogVersionService {
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private final ProductRepository productRepository;
+
+    private final IngredientRepository ingredientRepository;
+
+    private final StockLedger stockLedger;
+
+    public String getProductsETag(Long after, int limit) {
+        return eTag("products-" + after + "-" + pageSize(limit) + "-" + productRepository.findPageDigest(after, pageSize(limit)));
+    }
+
+    /**
+     * The ETag of a page of products already loaded with their recipes, computed exactly as
+     * {@link ProductRepository#findPageDigest(Long, int)} does in the database.
+     */
+    public String getProductsETag(Long after, int limit, Slice<Product> products) {
+        StringJoiner rows = new StringJoiner(",");
+        products.getContent().stream()
+                .sorted(Comparator.comparing(Product::getId))
+                .forEach(product -> addRows(rows, product));
+
+        return eTag("products-" + after + "-" + pageSize(limit) + "-" + md5(rows.toString()) + (products.hasNext() ? "-next" : ""));
+    }
+
+    public String getProductETag(Long id) {
+        return productRepository.findDigestById(id)
+                .map(digest -> eTag("product-" + id + "-" + digest))
+                .orElse(null);
+    }
+
+    /**
+     * The ETag of a product already loaded with its recipe, computed exactly as
+     * {@link ProductRepository#findDigestById(Long)} does in the database, so a caller can tell
+     * whether what it loaded is the version that was validated.
+     */
+    public String getProductETag(Product product) {
+        StringJoiner rows = new StringJoiner(",");
+        addRows(rows, product);
+
+        return eTag("product-" + product.getId() + "-" + md5(rows.toString()));
+    }
+
+    /**
+     * Adds one row per recipe line of the product, in line id order, or a single row for a product
+     * without a recipe, as the left joins of the digest queries produce them.
+     */
+    private static void addRows(StringJoiner rows, Product product) {
+        long version = product.getVersion() == null ? 0 : product.getVersion();
+
+        List<ProductIngredient> lines = product.getIngredients() == null ? List.of() : product.getIngredients().stream()
+                .sorted(Comparator.comparing(ProductIngredient::getId, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .toList();
+
+        if (lines.isEmpty()) {
+            rows.add(product.getId() + ":" + version + ":0:0");
+        }
+        for (ProductIngredient line : lines) {
+            Long ingredientVersion = line.getIngredient() == null ? null : line.getIngredient().getVersion();
+            rows.add(product.getId() + ":" + version + ":" + (line.getId() == null ? 0 : line.getId()) + ":" + (ingredientVersion == null ? 0 : ingredientVersion));
+        }
+    }
+
+    public String getIngredientsETag(Long after, int limit) {
+        if (stockLedger.isEnabled()) {
+            return null;
+        }
+
+        return eTag("ingredients-" + after + "-" + pageSize(limit) + "-" + ingredientRepository.findPageDigest(after, pageSize(limit) + 1));
+    }
+
+    public String getIngredientETag(Long id) {
+        if (stockLedger.isEnabled()) {
+            return null;
+        }
+
+        return ingredientRepository.findVersionById(id)
+                .map(version -> eTag("ingredient-" + id + "-" + version))
+                .orElse(null);
+    }
+
+    /**
+     * The ETag of an ingredient already loaded, possibly from the cache, so a caller can tell
+     * whether it is the version {@link #getIngredientETag(Long)} validated.
+     */
+    public String getIngredientETag(Ingredient ingredient) {
+        if (stockLedger.isEnabled() || ingredient.getVersion() == null) {
+            return null;
+        }
+
+        return eTag("ingredient-" + ingredient.getId() + "-" + ingredient.getVersion());
+    }
+
+    private static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    private static String md5(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String eTag(String version) {
+        return "\"" + version + "\"";
+    }
+}
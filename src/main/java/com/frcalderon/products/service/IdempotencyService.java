@@ -0,0 +1,170 @@
+package com.frcalderon.products.service;
+
+import com.frcalderon.products.config.IdempotencyProperties;
+import com.frcalderon.products.model.IdempotencyRecord;
+import com.frcalderon.products.repository.IdempotencyRecordRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Remembers the response to each {@code Idempotency-Key}. A key is reserved in its own
+ * transaction before the request runs, so concurrent retries cannot both execute, and completed
+ * responses are kept in a bounded in-memory cache in front of the {@code IdempotencyRecord} table.
+ * A record older than the TTL is treated as absent, whether or not it has been purged yet.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final String WRITTEN_ATTRIBUTE = IdempotencyService.class.getName() + ".written";
+
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Cache<String, IdempotencyRecord> completedRecords;
+
+    private final Duration ttl;
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              EntityManager entityManager,
+                              PlatformTransactionManager transactionManager,
+                              IdempotencyProperties idempotencyProperties) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.ttl = idempotencyProperties.getTtl();
+        this.completedRecords = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(idempotencyProperties.getMaximumSize())
+                .build();
+    }
+
+    public Optional<IdempotencyRecord> find(String idempotencyKey) {
+        Instant expiredBefore = Instant.now().minus(ttl);
+
+        IdempotencyRecord cached = completedRecords.getIfPresent(idempotencyKey);
+        if (cached != null && cached.getCreatedAt().isAfter(expiredBefore)) {
+            return Optional.of(cached);
+        }
+
+        Optional<IdempotencyRecord> stored = idempotencyRecordRepository.findByIdempotencyKeyAndCreatedAtAfter(idempotencyKey, expiredBefore);
+        stored.filter(IdempotencyRecord::isCompleted).ifPresent(record -> completedRecords.put(idempotencyKey, record));
+        return stored;
+    }
+
+    /**
+     * Reserves the key, or returns false when another request already holds it. A record of the key
+     * that has expired but not been purged yet is replaced. Any other failure to store the
+     * reservation is thrown.
+     */
+    public boolean reserve(String idempotencyKey, String requestFingerprint) {
+        IdempotencyRecord record = IdempotencyRecord.builder()
+                .idempotencyKey(idempotencyKey)
+                .requestFingerprint(requestFingerprint)
+                .createdAt(Instant.now())
+                .build();
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.persist(record);
+                entityManager.flush();
+            });
+            return true;
+        } catch (DataAccessException | PersistenceException e) {
+            if (isDuplicateKey(e)) {
+                return idempotencyRecordRepository.deleteByIdempotencyKeyAndCreatedAtBefore(idempotencyKey, Instant.now().minus(ttl)) > 0
+                        && reserve(idempotencyKey, requestFingerprint);
+            }
+            throw e;
+        }
+    }
+
+    public void complete(String idempotencyKey, int responseStatus, String responseContentType, String responseBody) {
+        IdempotencyRecord record = transactionTemplate.execute(status -> {
+            IdempotencyRecord reserved = entityManager.find(IdempotencyRecord.class, idempotencyKey);
+            reserved.setResponseStatus(responseStatus);
+            reserved.setResponseContentType(responseContentType);
+            reserved.setResponseBody(responseBody);
+            return reserved;
+        });
+
+        completedRecords.put(idempotencyKey, record);
+    }
+
+    public void release(String idempotencyKey) {
+        idempotencyRecordRepository.deleteById(idempotencyKey);
+    }
+
+    /**
+     * Notes on the current request that it wrote stock in the current transaction. Unless that
+     * transaction is known to have rolled back, the request's key is kept even if it fails
+     * afterwards, so a retry cannot apply the write twice.
+     */
+    public static void recordWrite() {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes == null) {
+            return;
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            requestAttributes.setAttribute(WRITTEN_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_ROLLED_BACK) {
+                    requestAttributes.setAttribute(WRITTEN_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+                }
+            }
+        });
+    }
+
+    /**
+     * Whether the request recorded a write that was committed, or whose outcome is unknown.
+     */
+    public boolean mayHaveWritten(HttpServletRequest request) {
+        return request.getAttribute(WRITTEN_ATTRIBUTE) != null;
+    }
+
+    @Scheduled(fixedDelayString = "${sweetify.idempotency.purge-interval:PT1H}")
+    public void purgeExpired() {
+        idempotencyRecordRepository.deleteByCreatedAtBefore(Instant.now().minus(ttl));
+    }
+
+    private static boolean isDuplicateKey(RuntimeException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DuplicateKeyException
+                    || cause instanceof SQLException sqlException && UNIQUE_VIOLATION.equals(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -1,84 +1,276 @@
 package com.frcalderon.products.service;
 
 import com.frcalderon.products.controller.dto.IngredientRequest;
+import com.frcalderon.products.controller.dto.IngredientResponse;
 import com.frcalderon.products.controller.dto.IngredientStockRequest;
 import com.frcalderon.products.exceptions.IngredientHasProductsAssignedException;
 import com.frcalderon.products.exceptions.IngredientNotFoundException;
+import com.frcalderon.products.metrics.StockMetrics;
+import com.frcalderon.products.metrics.StockRetryListener;
+import com.frcalderon.products.model.AggregateType;
+import com.frcalderon.products.model.CatalogEntityType;
+import com.frcalderon.products.model.ChangeType;
 import com.frcalderon.products.model.Ingredient;
+import com.frcalderon.products.model.IngredientUsage;
+import com.frcalderon.products.model.LowStockIngredient;
+import com.frcalderon.products.model.StockMovement;
+import com.frcalderon.products.model.StockMovementReason;
+import com.frcalderon.products.outbox.OutboxWriter;
 import com.frcalderon.products.repository.IngredientRepository;
 import com.frcalderon.products.repository.ProductIngredientRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.AllArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 @Service
 @AllArgsConstructor
 public class IngredientService {
 
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final IngredientRepository ingredientRepository;
 
     private final ProductIngredientRepository productIngredientRepository;
 
-    public List<Ingredient> getAllIngredients() {
-        return this.ingredientRepository.findAll();
+    private final CatalogCache catalogCache;
+
+    private final StockLedger stockLedger;
+
+    private final Validator validator;
+
+    private final StockMetrics stockMetrics;
+
+    private final LowStockIndex lowStockIndex;
+
+    private final StockMovementRecorder stockMovementRecorder;
+
+    private final OutboxWriter outboxWriter;
+
+    private final RecipeIndex recipeIndex;
+
+    private final CatalogChangeService catalogChangeService;
+
+    public Slice<Ingredient> getAllIngredients(Long after, int limit) {
+        PageRequest pageRequest = PageRequest.of(0, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)), Sort.by("id"));
+        Slice<Ingredient> ingredients = this.ingredientRepository.findByIdGreaterThan(after, pageRequest);
+        return stockLedger.isEnabled() ? ingredients.map(stockLedger::withPendingStock) : ingredients;
     }
 
     public Ingredient getIngredient(Long id) {
-        return ingredientRepository.findById(id)
-                .orElseThrow(IngredientNotFoundException::new);
+        return catalogCache.getIngredient(id, () -> {
+            Ingredient ingredient = ingredientRepository.findById(id)
+                    .orElseThrow(IngredientNotFoundException::new);
+
+            return stockLedger.isEnabled() ? stockLedger.withPendingStock(ingredient) : ingredient;
+        });
+    }
+
+    public Ingredient refreshIngredient(Long id) {
+        catalogCache.evictIngredient(id);
+        return getIngredient(id);
+    }
+
+    public List<LowStockIngredient> getLowStockIngredients() {
+        return lowStockIndex.getLowStock();
     }
 
+    public List<IngredientUsage> getIngredientUsages(Long id) {
+        if (!ingredientRepository.existsById(id)) {
+            throw new IngredientNotFoundException();
+        }
+
+        return recipeIndex.getUsages(id);
+    }
+
+    @Transactional
     public Ingredient createIngredient(IngredientRequest ingredientRequest) {
         Ingredient ingredient = Ingredient.builder()
                 .name(ingredientRequest.getName())
                 .units(ingredientRequest.getUnits())
                 .stock(ingredientRequest.getStock())
+                .reorderThreshold(ingredientRequest.getReorderThreshold())
                 .build();
 
-        return ingredientRepository.save(ingredient);
+        Ingredient ingredientSaved = ingredientRepository.save(ingredient);
+
+        stockMovementRecorder.record(StockMovementRecorder.movement(ingredientSaved.getId(), stockOf(ingredientSaved), StockMovementReason.CREATED));
+        outboxWriter.append(AggregateType.INGREDIENT, ingredientSaved.getId(), ingredientSaved.getVersion(), ChangeType.CREATED, new IngredientResponse(ingredientSaved));
+        lowStockIndex.update(ingredientSaved);
+
+        return ingredientSaved;
+    }
+
+    @Transactional
+    public List<BatchResult<Ingredient>> createIngredients(List<IngredientRequest> ingredientRequestList) {
+        List<BatchResult<Ingredient>> results = new ArrayList<>(ingredientRequestList.size());
+        List<Ingredient> ingredients = new ArrayList<>(ingredientRequestList.size());
+
+        for (int index = 0; index < ingredientRequestList.size(); index++) {
+            IngredientRequest ingredientRequest = ingredientRequestList.get(index);
+
+            Set<ConstraintViolation<IngredientRequest>> violations = validator.validate(ingredientRequest);
+            if (!violations.isEmpty()) {
+                results.add(BatchResult.failed(index, violations));
+                continue;
+            }
+
+            Ingredient ingredient = Ingredient.builder()
+                    .name(ingredientRequest.getName())
+                    .units(ingredientRequest.getUnits())
+                    .stock(ingredientRequest.getStock())
+                    .reorderThreshold(ingredientRequest.getReorderThreshold())
+                    .build();
+
+            ingredients.add(ingredient);
+            results.add(BatchResult.created(index, ingredient));
+        }
+
+        List<Ingredient> ingredientsSaved = ingredientRepository.saveAll(ingredients);
+
+        List<StockMovement> movements = new ArrayList<>(ingredientsSaved.size());
+        for (Ingredient ingredientSaved : ingredientsSaved) {
+            movements.add(StockMovementRecorder.movement(ingredientSaved.getId(), stockOf(ingredientSaved), StockMovementReason.CREATED));
+        }
+        stockMovementRecorder.record(movements);
+        outboxWriter.appendAll(AggregateType.INGREDIENT, ChangeType.CREATED, ingredientsSaved, Ingredient::getId, Ingredient::getVersion, IngredientResponse::new);
+        lowStockIndex.updateAll(ingredientsSaved);
+
+        return results;
     }
 
+    @StockRetryable(label = "IngredientService.updateIngredient")
+    @Transactional
     public Ingredient updateIngredient(Long id, IngredientRequest ingredientRequest) {
+        StockRetryListener.touch(List.of(id));
+
         Ingredient ingredientToUpdate = ingredientRepository.findById(id)
                 .orElseThrow(IngredientNotFoundException::new);
 
+        double previousStock = stockOf(stockLedger.isEnabled() ? stockLedger.withPendingStock(ingredientToUpdate) : ingredientToUpdate);
+
         ingredientToUpdate.setName(ingredientRequest.getName());
         ingredientToUpdate.setUnits(ingredientRequest.getUnits());
         ingredientToUpdate.setStock(ingredientRequest.getStock());
+        ingredientToUpdate.setReorderThreshold(ingredientRequest.getReorderThreshold());
+
+        if (stockLedger.isEnabled()) {
+            stockLedger.forget(id);
+        }
 
-        return ingredientRepository.save(ingredientToUpdate);
+        Ingredient ingredientUpdated = ingredientRepository.saveAndFlush(ingredientToUpdate);
+        catalogCache.evictIngredient(id);
+
+        if (stockOf(ingredientUpdated) != previousStock) {
+            stockMovementRecorder.record(StockMovementRecorder.movement(id, stockOf(ingredientUpdated) - previousStock, StockMovementReason.ADJUSTED));
+        }
+        outboxWriter.append(AggregateType.INGREDIENT, id, ingredientUpdated.getVersion(), ChangeType.UPDATED, new IngredientResponse(ingredientUpdated));
+        lowStockIndex.update(ingredientUpdated);
+
+        return ingredientUpdated;
     }
 
+    @Transactional
     public void deleteIngredient(Long id) {
         if (!ingredientRepository.existsById(id)) {
             throw new IngredientNotFoundException();
         }
 
-        if (productIngredientRepository.findAllByIngredientId(id).size() > 0) {
+        if (productIngredientRepository.existsByIngredientId(id)) {
             throw new IngredientHasProductsAssignedException();
         }
 
+        if (stockLedger.isEnabled()) {
+            stockLedger.forget(id);
+        }
+
         ingredientRepository.deleteById(id);
+        catalogCache.evictIngredient(id);
+        catalogChangeService.recordDeleted(CatalogEntityType.INGREDIENT, id);
+
+        outboxWriter.appendDeleted(AggregateType.INGREDIENT, id);
+        lowStockIndex.remove(id);
     }
 
+    @Transactional
     public Ingredient addStockToIngredient(IngredientStockRequest ingredientStockRequest) {
-        Ingredient ingredientToUpdate = ingredientRepository.findById(ingredientStockRequest.getIngredientId())
-                .orElseThrow(IngredientNotFoundException::new);
+        catalogCache.evictIngredient(ingredientStockRequest.getIngredientId());
+        IdempotencyService.recordWrite();
 
-        Double newStock = ingredientToUpdate.getStock() + ingredientStockRequest.getStock();
-        ingredientToUpdate.setStock(newStock);
+        Ingredient ingredient = stockLedger.isEnabled()
+                ? stockLedger.apply(ingredientStockRequest.getIngredientId(), ingredientStockRequest.getStock())
+                : ingredientRepository.addStock(ingredientStockRequest.getIngredientId(), ingredientStockRequest.getStock())
+                        .orElseThrow(IngredientNotFoundException::new);
 
-        return ingredientRepository.save(ingredientToUpdate);
+        stockMovementRecorder.record(StockMovementRecorder.movement(ingredient.getId(), ingredientStockRequest.getStock(), StockMovementReason.ADDED));
+        // With the ledger enabled the event is appended when the ledger flushes, with the version it writes.
+        if (!stockLedger.isEnabled()) {
+            outboxWriter.append(AggregateType.INGREDIENT, ingredient.getId(), ingredient.getVersion(), ChangeType.STOCK_CHANGED, new IngredientResponse(ingredient));
+        }
+        lowStockIndex.update(ingredient);
+
+        return stockMetrics.record(ingredient, ingredientStockRequest.getStock());
     }
 
+    @Transactional
     public Ingredient consumeStockFromIngredient(IngredientStockRequest ingredientStockRequest) {
-        Ingredient ingredientToUpdate = ingredientRepository.findById(ingredientStockRequest.getIngredientId())
-                .orElseThrow(IngredientNotFoundException::new);
+        catalogCache.evictIngredient(ingredientStockRequest.getIngredientId());
+        IdempotencyService.recordWrite();
+
+        Ingredient ingredient = stockLedger.isEnabled()
+                ? stockLedger.apply(ingredientStockRequest.getIngredientId(), -ingredientStockRequest.getStock())
+                : ingredientRepository.addStock(ingredientStockRequest.getIngredientId(), -ingredientStockRequest.getStock())
+                        .orElseThrow(IngredientNotFoundException::new);
+
+        stockMovementRecorder.record(StockMovementRecorder.movement(ingredient.getId(), -ingredientStockRequest.getStock(), StockMovementReason.CONSUMED));
+        if (!stockLedger.isEnabled()) {
+            outboxWriter.append(AggregateType.INGREDIENT, ingredient.getId(), ingredient.getVersion(), ChangeType.STOCK_CHANGED, new IngredientResponse(ingredient));
+        }
+        lowStockIndex.update(ingredient);
+
+        return stockMetrics.record(ingredient, -ingredientStockRequest.getStock());
+    }
+
+    @Transactional
+    public List<Ingredient> applyStockDeltas(Map<Long, Double> stockDeltas) {
+        catalogCache.evictIngredients(stockDeltas.keySet());
+        IdempotencyService.recordWrite();
 
-        Double newStock = ingredientToUpdate.getStock() - ingredientStockRequest.getStock();
-        ingredientToUpdate.setStock(newStock);
+        List<Ingredient> updatedIngredients;
+
+        if (stockLedger.isEnabled()) {
+            updatedIngredients = stockLedger.applyAll(stockDeltas);
+        } else {
+            updatedIngredients = new ArrayList<>(stockDeltas.size());
+
+            for (Long ingredientId : new TreeSet<>(stockDeltas.keySet())) {
+                updatedIngredients.add(
+                        ingredientRepository.addStock(ingredientId, stockDeltas.get(ingredientId))
+                                .orElseThrow(IngredientNotFoundException::new)
+                );
+            }
+        }
+
+        if (!stockLedger.isEnabled()) {
+            outboxWriter.appendAll(AggregateType.INGREDIENT, ChangeType.STOCK_CHANGED, updatedIngredients, Ingredient::getId, Ingredient::getVersion, IngredientResponse::new);
+        }
+        lowStockIndex.updateAll(updatedIngredients);
+        stockMetrics.record(stockDeltas);
+
+        return updatedIngredients;
+    }
 
-        return ingredientRepository.save(ingredientToUpdate);
+    private static double stockOf(Ingredient ingredient) {
+        return ingredient.getStock() == null ? 0 : ingredient.getStock();
     }
 }
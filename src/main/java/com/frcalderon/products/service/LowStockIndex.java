@@ -0,0 +1,159 @@
+package com.frcalderon.products.service;
+
+import com.frcalderon.products.model.Ingredient;
+import com.frcalderon.products.model.LowStockIngredient;
+import com.frcalderon.products.repository.IngredientRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Ingredients currently below their reorder threshold, kept in an id-ordered map so listing them
+ * costs O(k) for k results. Every local stock change updates the index after its transaction
+ * commits, publishing a {@link StockThresholdCrossedEvent} on each transition, and the index is
+ * reloaded periodically to pick up writes made by other instances. Levels are ordered by the
+ * ingredient version, which every stock write increments in the database, so a level never
+ * replaces a newer one however late its commit callback or reload runs. Reloads never publish: a
+ * crossing is announced only by the instance that wrote it, so it is not repeated by every pod.
+ */
+@Component
+public class LowStockIndex {
+
+    private final IngredientRepository ingredientRepository;
+
+    private final StockLedger stockLedger;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ConcurrentMap<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    private final ConcurrentSkipListMap<Long, LowStockIngredient> lowStock = new ConcurrentSkipListMap<>();
+
+    public LowStockIndex(IngredientRepository ingredientRepository, StockLedger stockLedger, ApplicationEventPublisher eventPublisher) {
+        this.ingredientRepository = ingredientRepository;
+        this.stockLedger = stockLedger;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public List<LowStockIngredient> getLowStock() {
+        return new ArrayList<>(lowStock.values());
+    }
+
+    public void update(Ingredient ingredient) {
+        LowStockIngredient level = new LowStockIngredient(
+                ingredient.getId(),
+                ingredient.getName(),
+                ingredient.getUnits(),
+                ingredient.getStock(),
+                ingredient.getReorderThreshold(),
+                ingredient.getVersion()
+        );
+
+        TransactionCallbacks.afterCommit(() -> apply(level.getIngredientId(), level, true));
+    }
+
+    public void updateAll(List<Ingredient> ingredients) {
+        ingredients.forEach(this::update);
+    }
+
+    public void remove(Long ingredientId) {
+        TransactionCallbacks.afterCommit(() -> apply(ingredientId, null, false));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${sweetify.stock.low-stock.refresh-interval:PT1M}", initialDelayString = "${sweetify.stock.low-stock.refresh-interval:PT1M}")
+    public void reload() {
+        Set<Long> loadedIds = new HashSet<>();
+
+        for (LowStockIngredient level : ingredientRepository.findAllStockLevels()) {
+            if (stockLedger.isEnabled()) {
+                Double pendingStock = stockLedger.getStock(level.getIngredientId());
+                if (pendingStock != null) {
+                    level.setStock(pendingStock);
+                }
+            }
+
+            loadedIds.add(level.getIngredientId());
+            apply(level.getIngredientId(), level, false);
+        }
+
+        // Ingredients missing from the database are deleted: index them as such, then drop their
+        // tombstones, since no level can follow a deletion that the database already shows.
+        for (Long ingredientId : List.copyOf(entries.keySet())) {
+            if (!loadedIds.contains(ingredientId)) {
+                apply(ingredientId, null, false);
+                entries.remove(ingredientId);
+            }
+        }
+    }
+
+    /**
+     * Stores the level unless a newer version is already indexed, and publishes a transition only
+     * for local writes. A crossing seen by a reload was written, and announced, by another instance.
+     * A null level marks a deleted ingredient.
+     */
+    private void apply(Long ingredientId, LowStockIngredient level, boolean local) {
+        Entry[] previous = new Entry[1];
+
+        Entry current = entries.compute(ingredientId, (id, existing) -> {
+            previous[0] = existing;
+            if (!supersedes(level, existing)) {
+                return existing;
+            }
+
+            if (level != null && level.isBelowThreshold()) {
+                lowStock.put(id, level);
+            } else {
+                lowStock.remove(id);
+            }
+
+            return new Entry(level);
+        });
+
+        if (!local || current == previous[0] || level == null) {
+            return;
+        }
+
+        boolean wasBelow = previous[0] != null && previous[0].level() != null && previous[0].level().isBelowThreshold();
+
+        if (wasBelow != level.isBelowThreshold()) {
+            eventPublisher.publishEvent(new StockThresholdCrossedEvent(level, level.isBelowThreshold()));
+        }
+    }
+
+    /**
+     * Nothing supersedes a deletion, and a deletion supersedes every level. Otherwise a level
+     * replaces one of the same or an older version; a level without a version, such as a pending
+     * stock ledger write, is taken as the newest.
+     */
+    private static boolean supersedes(LowStockIngredient level, Entry existing) {
+        if (existing == null || level == null) {
+            return existing == null || existing.level() != null;
+        }
+
+        if (existing.level() == null) {
+            return false;
+        }
+
+        Long version = level.getVersion();
+        Long existingVersion = existing.level().getVersion();
+        return version == null || existingVersion == null || version >= existingVersion;
+    }
+
+    /**
+     * The last known level of an ingredient, or a tombstone for a deleted ingredient when
+     * {@code level} is null.
+     */
+    private record Entry(LowStockIngredient level) {
+    }
+}
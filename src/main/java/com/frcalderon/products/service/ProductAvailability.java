@@ -0,0 +1,20 @@
+package com.frcalderon.products.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductAvailability {
+
+    private Long productId;
+
+    /**
+     * Whole units that can be made from current stock, or null when the product has no recipe lines.
+     */
+    private Long available;
+}
@@ -0,0 +1,268 @@
+package com.frcalderon.products.service;
+
+import com.frcalderon.products.model.Product;
+import com.frcalderon.products.model.ProductSearchDocument;
+import com.frcalderon.products.repository.ProductRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over product names and descriptions. Text is lower-cased, accent-folded
+ * ({@code "Limón"} matches {@code "limon"}) and split on anything that is not a letter or digit.
+ * Terms are kept sorted so every query token matches as a prefix with one range scan. A product
+ * must match every query token; name matches outrank description matches and exact terms outrank
+ * prefixes. Like {@link RecipeIndex}, the index is loaded at startup, kept current by local writes
+ * after commit and reloaded periodically to pick up writes made by other instances.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final double NAME_EXACT = 3.0;
+
+    private static final double NAME_PREFIX = 2.0;
+
+    private static final double DESCRIPTION_EXACT = 1.0;
+
+    private static final double DESCRIPTION_PREFIX = 0.5;
+
+    private final ProductRepository productRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+
+    private final TreeMap<String, Set<Long>> nameIndex = new TreeMap<>();
+
+    private final TreeMap<String, Set<Long>> descriptionIndex = new TreeMap<>();
+
+    private final AtomicLong clock = new AtomicLong();
+
+    public ProductSearchIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    public List<ProductSearchResult> search(String query, int limit) {
+        String[] queryTerms = tokenize(query);
+        if (queryTerms.length == 0) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = null;
+            for (String queryTerm : queryTerms) {
+                Map<Long, Double> termScores = score(nameIndex, queryTerm, NAME_EXACT, NAME_PREFIX);
+                score(descriptionIndex, queryTerm, DESCRIPTION_EXACT, DESCRIPTION_PREFIX)
+                        .forEach((productId, score) -> termScores.merge(productId, score, Double::sum));
+
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    scores.keySet().retainAll(termScores.keySet());
+                    scores.replaceAll((productId, score) -> score + termScores.get(productId));
+                }
+
+                if (scores.isEmpty()) {
+                    return Collections.emptyList();
+                }
+            }
+
+            Map<Long, Double> matches = scores;
+            Comparator<Long> ranking = Comparator.<Long>comparingDouble(matches::get).reversed()
+                    .thenComparingInt(productId -> nameLength(entries.get(productId).document()))
+                    .thenComparing(Comparator.naturalOrder());
+
+            PriorityQueue<Long> top = new PriorityQueue<>(limit + 1, ranking.reversed());
+            for (Long productId : matches.keySet()) {
+                top.offer(productId);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+
+            List<ProductSearchResult> results = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                Long productId = top.poll();
+                ProductSearchDocument document = entries.get(productId).document();
+                results.add(new ProductSearchResult(document.getId(), document.getName(), document.getDescription(), document.getPrice(), matches.get(productId)));
+            }
+            Collections.reverse(results);
+
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(Product product) {
+        ProductSearchDocument document = new ProductSearchDocument(product.getId(), product.getName(), product.getDescription(), product.getPrice());
+        TransactionCallbacks.afterCommit(() -> write(Map.of(document.getId(), document), clock.incrementAndGet(), false));
+    }
+
+    public void remove(Long productId) {
+        TransactionCallbacks.afterCommit(() -> {
+            Map<Long, ProductSearchDocument> tombstone = new HashMap<>();
+            tombstone.put(productId, null);
+            write(tombstone, clock.incrementAndGet(), false);
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${sweetify.search.refresh-interval:PT5M}", initialDelayString = "${sweetify.search.refresh-interval:PT5M}")
+    public void reload() {
+        long snapshotVersion = clock.incrementAndGet();
+        List<ProductSearchDocument> snapshot = productRepository.findAllSearchDocuments();
+
+        Map<Long, ProductSearchDocument> changed = new HashMap<>();
+        Set<Long> loadedIds = new HashSet<>(snapshot.size() * 2);
+
+        lock.readLock().lock();
+        try {
+            for (ProductSearchDocument document : snapshot) {
+                loadedIds.add(document.getId());
+                Entry entry = entries.get(document.getId());
+                if (entry == null || !document.equals(entry.document())) {
+                    changed.put(document.getId(), document);
+                }
+            }
+
+            for (Map.Entry<Long, Entry> entry : entries.entrySet()) {
+                if (!loadedIds.contains(entry.getKey()) && entry.getValue().document() != null) {
+                    changed.put(entry.getKey(), null);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        write(changed, snapshotVersion, true);
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return (int) entries.values().stream().filter(entry -> entry.document() != null).count();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Applies documents (null for deleted products) stamped with {@code version}, skipping products
+     * that already hold a newer write. A full reload also drops tombstones older than its snapshot.
+     */
+    private void write(Map<Long, ProductSearchDocument> documents, long version, boolean purgeTombstones) {
+        if (documents.isEmpty() && !purgeTombstones) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            documents.forEach((productId, document) -> {
+                Entry current = entries.get(productId);
+                if (current != null && current.version() > version) {
+                    return;
+                }
+
+                if (current != null && current.document() != null) {
+                    unindex(nameIndex, current.nameTerms(), productId);
+                    unindex(descriptionIndex, current.descriptionTerms(), productId);
+                }
+
+                if (document == null) {
+                    entries.put(productId, new Entry(null, new String[0], new String[0], version));
+                    return;
+                }
+
+                Entry entry = new Entry(document, distinctTerms(document.getName()), distinctTerms(document.getDescription()), version);
+                index(nameIndex, entry.nameTerms(), productId);
+                index(descriptionIndex, entry.descriptionTerms(), productId);
+                entries.put(productId, entry);
+            });
+
+            if (purgeTombstones) {
+                entries.values().removeIf(entry -> entry.document() == null && entry.version() < version);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static int nameLength(ProductSearchDocument document) {
+        return document.getName() == null ? 0 : document.getName().length();
+    }
+
+    private static Map<Long, Double> score(NavigableMap<String, Set<Long>> index, String queryTerm, double exactWeight, double prefixWeight) {
+        Map<Long, Double> scores = new HashMap<>();
+
+        for (Map.Entry<String, Set<Long>> term : index.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false).entrySet()) {
+            double weight = term.getKey().length() == queryTerm.length() ? exactWeight : prefixWeight;
+            for (Long productId : term.getValue()) {
+                scores.merge(productId, weight, Math::max);
+            }
+        }
+
+        return scores;
+    }
+
+    private static void index(Map<String, Set<Long>> index, String[] terms, Long productId) {
+        for (String term : terms) {
+            index.computeIfAbsent(term, key -> new HashSet<>()).add(productId);
+        }
+    }
+
+    private static void unindex(Map<String, Set<Long>> index, String[] terms, Long productId) {
+        for (String term : terms) {
+            Set<Long> productIds = index.get(term);
+            if (productIds != null && productIds.remove(productId) && productIds.isEmpty()) {
+                index.remove(term);
+            }
+        }
+    }
+
+    private static String[] distinctTerms(String text) {
+        return Arrays.stream(tokenize(text)).distinct().toArray(String[]::new);
+    }
+
+    static String[] tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return new String[0];
+        }
+
+        String folded = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return Arrays.stream(SEPARATORS.split(folded.toLowerCase(Locale.ROOT)))
+                .filter(term -> !term.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    /**
+     * The indexed text of a product, or a tombstone for a deleted product when {@code document} is
+     * null, stamped with the clock value at which it was written.
+     */
+    private record Entry(ProductSearchDocument document, String[] nameTerms, String[] descriptionTerms, long version) {
+    }
+}
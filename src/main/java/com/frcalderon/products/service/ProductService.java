@@ -1,26 +1,56 @@
 package com.frcalderon.products.service;
 
-import com.frcalderon.products.controller.dto.IngredientStockRequest;
 import com.frcalderon.products.controller.dto.ManageProductsRequest;
 import com.frcalderon.products.controller.dto.ProductIngredientRequest;
 import com.frcalderon.products.controller.dto.ProductRequest;
+import com.frcalderon.products.controller.dto.ProductResponse;
 import com.frcalderon.products.exceptions.IngredientNotFoundException;
 import com.frcalderon.products.exceptions.ProductNotFoundException;
+import com.frcalderon.products.model.AggregateType;
+import com.frcalderon.products.model.CatalogEntityType;
+import com.frcalderon.products.model.ChangeType;
+import com.frcalderon.products.model.Ingredient;
 import com.frcalderon.products.model.Product;
 import com.frcalderon.products.model.ProductIngredient;
+import com.frcalderon.products.model.StockMovement;
+import com.frcalderon.products.model.StockMovementReason;
+import com.frcalderon.products.outbox.OutboxWriter;
 import com.frcalderon.products.repository.IngredientRepository;
 import com.frcalderon.products.repository.ProductIngredientRepository;
 import com.frcalderon.products.repository.ProductRepository;
-import jakarta.transaction.Transactional;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.AllArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @AllArgsConstructor
 public class ProductService {
 
+    private static final int MAX_PAGE_SIZE = 500;
+
+    private static final int BATCH_FLUSH_SIZE = 500;
+
+    private static final int MAX_SEARCH_RESULTS = 100;
+
     private final ProductRepository productRepository;
 
     private final ProductIngredientRepository productIngredientRepository;
@@ -29,21 +59,55 @@ public class ProductService {
 
     private final IngredientService ingredientService;
 
-    public List<Product> getAllProducts() {
-        return this.productRepository.findAll();
+    private final EntityManager entityManager;
+
+    private final RecipeIndex recipeIndex;
+
+    private final Validator validator;
+
+    private final StockMovementRecorder stockMovementRecorder;
+
+    private final OutboxWriter outboxWriter;
+
+    private final ProductSearchIndex productSearchIndex;
+
+    private final CatalogChangeService catalogChangeService;
+
+    public Slice<Product> getAllProducts(Long after, int limit) {
+        PageRequest pageRequest = PageRequest.of(0, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)), Sort.by("id"));
+        Slice<Long> productIds = this.productRepository.findIdsByIdGreaterThan(after, pageRequest);
+
+        if (productIds.isEmpty()) {
+            return new SliceImpl<>(Collections.emptyList(), pageRequest, false);
+        }
+
+        List<Product> products = this.productRepository.findAllWithIngredientsByIdIn(productIds.getContent());
+        return new SliceImpl<>(products, pageRequest, productIds.hasNext());
+    }
+
+    public List<ProductSearchResult> searchProducts(String query, int limit) {
+        return productSearchIndex.search(query, Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS)));
     }
 
     public Product getProduct(Long id) {
-        return productRepository.findById(id)
+        return productRepository.findByIdWithIngredients(id)
                 .orElseThrow(ProductNotFoundException::new);
     }
 
-    public Product createProduct(ProductRequest productRequest) {
-        for (ProductIngredientRequest productIngredient : productRequest.getProductIngredientList()) {
-            if (!ingredientRepository.existsById(productIngredient.getIngredientId())) {
-                throw new IngredientNotFoundException();
-            }
+    @Transactional(readOnly = true)
+    public void exportProducts(Consumer<Product> productConsumer) {
+        try (Stream<Product> products = productRepository.streamAllWithIngredients()) {
+            products.forEach(product -> {
+                productConsumer.accept(product);
+                product.getIngredients().forEach(entityManager::detach);
+                entityManager.detach(product);
+            });
         }
+    }
+
+    @Transactional
+    public Product createProduct(ProductRequest productRequest) {
+        Map<Long, Ingredient> ingredients = findRecipeIngredients(productRequest.getProductIngredientList());
 
         Product product = Product.builder()
                 .name(productRequest.getName())
@@ -53,49 +117,109 @@ public class ProductService {
 
         Product productSaved = productRepository.save(product);
 
-        for (ProductIngredientRequest productIngredient : productRequest.getProductIngredientList()) {
-            productIngredientRepository.save(
-                    ProductIngredient.builder()
-                            .product(productSaved)
-                            .ingredient(ingredientRepository.findById(productIngredient.getIngredientId()).get())
-                            .quantity(productIngredient.getQuantity())
+        productSaved.setIngredients(saveRecipe(productSaved, productRequest.getProductIngredientList(), ingredients));
+
+        recipeIndex.put(productSaved.getId(), Recipe.fromRequest(productRequest.getProductIngredientList()));
+
+        productSearchIndex.put(productSaved);
+
+        outboxWriter.append(AggregateType.PRODUCT, productSaved.getId(), productSaved.getVersion(), ChangeType.CREATED, new ProductResponse(productSaved));
+
+        return productSaved;
+    }
+
+    @Transactional
+    public List<BatchResult<Product>> createProducts(List<ProductRequest> productRequestList) {
+        Set<Long> ingredientIds = new HashSet<>();
+        for (ProductRequest productRequest : productRequestList) {
+            if (productRequest.getProductIngredientList() != null) {
+                for (ProductIngredientRequest productIngredient : productRequest.getProductIngredientList()) {
+                    ingredientIds.add(productIngredient.getIngredientId());
+                }
+            }
+        }
+
+        Map<Long, Ingredient> ingredients = new HashMap<>();
+        for (Ingredient ingredient : ingredientRepository.findAllById(ingredientIds)) {
+            ingredients.put(ingredient.getId(), ingredient);
+        }
+
+        List<BatchResult<Product>> results = new ArrayList<>(productRequestList.size());
+        int persisted = 0;
+
+        for (int index = 0; index < productRequestList.size(); index++) {
+            ProductRequest productRequest = productRequestList.get(index);
+
+            Set<ConstraintViolation<ProductRequest>> violations = validator.validate(productRequest);
+            if (!violations.isEmpty()) {
+                results.add(BatchResult.failed(index, violations));
+                continue;
+            }
+
+            if (!productRequest.getProductIngredientList().stream().allMatch(line -> ingredients.containsKey(line.getIngredientId()))) {
+                results.add(BatchResult.failed(index, new IngredientNotFoundException().getMessage()));
+                continue;
+            }
+
+            Product productSaved = productRepository.save(
+                    Product.builder()
+                            .name(productRequest.getName())
+                            .description(productRequest.getDescription())
+                            .price(productRequest.getPrice())
                             .build()
             );
+
+            productSaved.setIngredients(saveRecipe(productSaved, productRequest.getProductIngredientList(), ingredients));
+
+            recipeIndex.put(productSaved.getId(), Recipe.fromRequest(productRequest.getProductIngredientList()));
+
+            productSearchIndex.put(productSaved);
+
+            outboxWriter.append(AggregateType.PRODUCT, productSaved.getId(), productSaved.getVersion(), ChangeType.CREATED, new ProductResponse(productSaved));
+
+            results.add(BatchResult.created(index, productSaved));
+
+            if (++persisted % BATCH_FLUSH_SIZE == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
         }
 
-        return productRepository.findById(productSaved.getId()).get();
+        return results;
     }
 
+    @StockRetryable(label = "ProductService.updateProduct")
     @Transactional
     public Product updateProduct(Long id, ProductRequest productRequest) {
         Product productToUpdate = productRepository.findById(id)
                 .orElseThrow(ProductNotFoundException::new);
 
-        for (ProductIngredientRequest productIngredient : productRequest.getProductIngredientList()) {
-            if (!ingredientRepository.existsById(productIngredient.getIngredientId())) {
-                throw new IngredientNotFoundException();
-            }
-        }
+        Map<Long, Ingredient> ingredients = findRecipeIngredients(productRequest.getProductIngredientList());
 
+        catalogChangeService.recordRecipeDeleted(id);
         productIngredientRepository.deleteByProductId(id);
 
-        for (ProductIngredientRequest productIngredient : productRequest.getProductIngredientList()) {
-            productIngredientRepository.save(
-                    ProductIngredient.builder()
-                            .product(productToUpdate)
-                            .ingredient(ingredientRepository.findById(productIngredient.getIngredientId()).get())
-                            .quantity(productIngredient.getQuantity())
-                            .build()
-            );
-        }
+        productToUpdate.setIngredients(saveRecipe(productToUpdate, productRequest.getProductIngredientList(), ingredients));
 
         productToUpdate.setName(productRequest.getName());
         productToUpdate.setDescription(productRequest.getDescription());
         productToUpdate.setPrice(productRequest.getPrice());
 
-        productRepository.save(productToUpdate);
+        Long previousVersion = productToUpdate.getVersion();
+        productRepository.saveAndFlush(productToUpdate);
+        if (Objects.equals(previousVersion, productToUpdate.getVersion())) {
+            // A recipe-only change leaves the product row clean; bump the version anyway so the
+            // outbox event carries a version newer than the previous one for this product.
+            entityManager.lock(productToUpdate, LockModeType.PESSIMISTIC_FORCE_INCREMENT);
+        }
+
+        recipeIndex.put(id, Recipe.fromRequest(productRequest.getProductIngredientList()));
+
+        productSearchIndex.put(productToUpdate);
 
-        return productRepository.findById(id).get();
+        outboxWriter.append(AggregateType.PRODUCT, id, productToUpdate.getVersion(), ChangeType.UPDATED, new ProductResponse(productToUpdate));
+
+        return productToUpdate;
     }
 
     @Transactional
@@ -104,48 +228,104 @@ public class ProductService {
             throw new ProductNotFoundException();
         }
 
+        catalogChangeService.recordRecipeDeleted(id);
         productIngredientRepository.deleteByProductId(id);
 
         productRepository.deleteById(id);
+        catalogChangeService.recordDeleted(CatalogEntityType.PRODUCT, id);
+
+        recipeIndex.remove(id);
+
+        productSearchIndex.remove(id);
+
+        outboxWriter.appendDeleted(AggregateType.PRODUCT, id);
     }
 
+    @Transactional
     public void addProducts(List<ManageProductsRequest> addProductsRequestList) {
-        for (ManageProductsRequest product : addProductsRequestList) {
-            if (!productRepository.existsById(product.getProductId())) {
-                throw new ProductNotFoundException();
-            }
+        List<StockMovement> movements = new ArrayList<>();
+        ingredientService.applyStockDeltas(aggregateIngredientDeltas(addProductsRequestList, 1, StockMovementReason.PRODUCT_ADDED, movements));
+        stockMovementRecorder.record(movements);
+    }
+
+    @Transactional
+    public void consumeProducts(List<ManageProductsRequest> consumeProductsRequestList) {
+        List<StockMovement> movements = new ArrayList<>();
+        ingredientService.applyStockDeltas(aggregateIngredientDeltas(consumeProductsRequestList, -1, StockMovementReason.PRODUCT_CONSUMED, movements));
+        stockMovementRecorder.record(movements);
+    }
+
+    private Map<Long, Ingredient> findRecipeIngredients(List<ProductIngredientRequest> productIngredientRequestList) {
+        Set<Long> ingredientIds = new HashSet<>();
+        for (ProductIngredientRequest productIngredient : productIngredientRequestList) {
+            ingredientIds.add(productIngredient.getIngredientId());
         }
 
-        for (ManageProductsRequest product : addProductsRequestList) {
-            Product productToAdd = productRepository.findById(product.getProductId()).get();
-            for (ProductIngredient productIngredient : productToAdd.getIngredients()) {
-                ingredientService.addStockToIngredient(
-                        IngredientStockRequest.builder()
-                                .ingredientId(productIngredient.getIngredient().getId())
-                                .stock(productIngredient.getQuantity() * product.getQuantity())
-                                .build()
-                );
-            }
+        Map<Long, Ingredient> ingredients = new HashMap<>();
+        for (Ingredient ingredient : ingredientRepository.findAllById(ingredientIds)) {
+            ingredients.put(ingredient.getId(), ingredient);
+        }
+
+        if (ingredients.size() != ingredientIds.size()) {
+            throw new IngredientNotFoundException();
         }
+
+        return ingredients;
     }
 
-    public void consumeProducts(List<ManageProductsRequest> consumeProductsRequestList) {
-        for (ManageProductsRequest product : consumeProductsRequestList) {
-            if (!productRepository.existsById(product.getProductId())) {
-                throw new ProductNotFoundException();
-            }
+    private List<ProductIngredient> saveRecipe(Product product, List<ProductIngredientRequest> productIngredientRequestList, Map<Long, Ingredient> ingredients) {
+        List<ProductIngredient> productIngredients = new ArrayList<>(productIngredientRequestList.size());
+        for (ProductIngredientRequest productIngredient : productIngredientRequestList) {
+            productIngredients.add(
+                    ProductIngredient.builder()
+                            .product(product)
+                            .ingredient(ingredients.get(productIngredient.getIngredientId()))
+                            .quantity(productIngredient.getQuantity())
+                            .build()
+            );
         }
 
-        for (ManageProductsRequest product : consumeProductsRequestList) {
-            Product productToConsume = productRepository.findById(product.getProductId()).get();
-            for (ProductIngredient productIngredient : productToConsume.getIngredients()) {
-                ingredientService.consumeStockFromIngredient(
-                        IngredientStockRequest.builder()
-                                .ingredientId(productIngredient.getIngredient().getId())
-                                .stock(productIngredient.getQuantity() * product.getQuantity())
-                                .build()
-                );
+        return productIngredientRepository.saveAll(productIngredients);
+    }
+
+    /**
+     * Sums the stock change of every ingredient over the requested products, and adds one movement
+     * per product and recipe line to {@code movements}.
+     */
+    private Map<Long, Double> aggregateIngredientDeltas(List<ManageProductsRequest> manageProductsRequestList, int sign,
+                                                        StockMovementReason reason, List<StockMovement> movements) {
+        Map<Long, Integer> quantityByProduct = new HashMap<>();
+        for (ManageProductsRequest product : manageProductsRequestList) {
+            quantityByProduct.merge(product.getProductId(), product.getQuantity(), Integer::sum);
+        }
+
+        if (quantityByProduct.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        // Stock writes read recipes from the database rather than RecipeIndex, which can lag writes made on other pods.
+        Map<Long, Recipe> recipes = Recipe.byProduct(
+                productRepository.findIdsByIdIn(quantityByProduct.keySet()),
+                productIngredientRepository.findRecipeLinesByProductIdIn(quantityByProduct.keySet())
+        );
+
+        if (recipes.size() != quantityByProduct.size()) {
+            throw new ProductNotFoundException();
+        }
+
+        StockDeltaAccumulator stockDeltas = new StockDeltaAccumulator();
+        for (Map.Entry<Long, Integer> product : quantityByProduct.entrySet()) {
+            Recipe recipe = recipes.get(product.getKey());
+            int multiplier = sign * product.getValue();
+            recipe.accumulate(multiplier, stockDeltas);
+
+            for (int line = 0; line < recipe.size(); line++) {
+                movements.add(StockMovementRecorder.movement(
+                        recipe.getIngredientId(line), recipe.getQuantity(line) * multiplier, reason, product.getKey()
+                ));
             }
         }
+
+        return stockDeltas.toMap();
     }
 }
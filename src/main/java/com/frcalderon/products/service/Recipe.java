@@ -0,0 +1,111 @@
+package com.frcalderon.products.service;
+
+import com.frcalderon.products.controller.dto.ProductIngredientRequest;
+import com.frcalderon.products.model.RecipeLine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, primitive-array view of a product recipe: the ingredient consumed by each line
+ * and how much of it one unit of the product needs.
+ */
+public final class Recipe {
+
+    public static final Recipe EMPTY = new Recipe(new long[0], new double[0]);
+
+    private final long[] ingredientIds;
+
+    private final double[] quantities;
+
+    public Recipe(long[] ingredientIds, double[] quantities) {
+        if (ingredientIds.length != quantities.length) {
+            throw new IllegalArgumentException("Recipe ingredient ids and quantities must have the same length");
+        }
+
+        this.ingredientIds = ingredientIds;
+        this.quantities = quantities;
+    }
+
+    public static Recipe fromRecipeLines(List<RecipeLine> recipeLines) {
+        long[] ingredientIds = new long[recipeLines.size()];
+        double[] quantities = new double[recipeLines.size()];
+
+        for (int i = 0; i < recipeLines.size(); i++) {
+            ingredientIds[i] = recipeLines.get(i).getIngredientId();
+            quantities[i] = recipeLines.get(i).getQuantity();
+        }
+
+        return new Recipe(ingredientIds, quantities);
+    }
+
+    /**
+     * Groups recipe lines into one recipe per product; products without lines get {@link #EMPTY}.
+     */
+    public static Map<Long, Recipe> byProduct(Collection<Long> productIds, List<RecipeLine> recipeLines) {
+        Map<Long, List<RecipeLine>> linesByProduct = new HashMap<>(productIds.size() * 2);
+        for (RecipeLine recipeLine : recipeLines) {
+            linesByProduct.computeIfAbsent(recipeLine.getProductId(), productId -> new ArrayList<>()).add(recipeLine);
+        }
+
+        Map<Long, Recipe> recipes = new HashMap<>(productIds.size() * 2);
+        for (Long productId : productIds) {
+            List<RecipeLine> productLines = linesByProduct.get(productId);
+            recipes.put(productId, productLines == null ? EMPTY : fromRecipeLines(productLines));
+        }
+
+        return recipes;
+    }
+
+    public static Recipe fromRequest(List<ProductIngredientRequest> productIngredientList) {
+        long[] ingredientIds = new long[productIngredientList.size()];
+        double[] quantities = new double[productIngredientList.size()];
+
+        for (int i = 0; i < productIngredientList.size(); i++) {
+            ingredientIds[i] = productIngredientList.get(i).getIngredientId();
+            quantities[i] = productIngredientList.get(i).getQuantity();
+        }
+
+        return new Recipe(ingredientIds, quantities);
+    }
+
+    public int size() {
+        return ingredientIds.length;
+    }
+
+    public long getIngredientId(int line) {
+        return ingredientIds[line];
+    }
+
+    public double getQuantity(int line) {
+        return quantities[line];
+    }
+
+    public void accumulate(double multiplier, StockDeltaAccumulator stockDeltas) {
+        for (int i = 0; i < ingredientIds.length; i++) {
+            stockDeltas.add(ingredientIds[i], quantities[i] * multiplier);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (!(o instanceof Recipe recipe)) {
+            return false;
+        }
+
+        return Arrays.equals(ingredientIds, recipe.ingredientIds) && Arrays.equals(quantities, recipe.quantities);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(ingredientIds) + Arrays.hashCode(quantities);
+    }
+}
@@ -0,0 +1,196 @@
+package com.frcalderon.products.service;
+
+import com.frcalderon.products.model.IngredientUsage;
+import com.frcalderon.products.repository.ProductIngredientRepository;
+import com.frcalderon.products.repository.ProductRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * In-memory copy of every product recipe for read-only features such as availability and
+ * where-used lookups; stock writes read recipes from the database instead. The index is fully
+ * loaded at startup, kept current by local product writes (applied after their transaction
+ * commits) and reloaded periodically to pick up writes made by other instances. Products missing
+ * from the index are looked up in the database.
+ * A reverse index from ingredient to the products using it is kept in step with every write, so
+ * where-used lookups cost the size of their result.
+ */
+@Component
+public class RecipeIndex {
+
+    private final ProductRepository productRepository;
+
+    private final ProductIngredientRepository productIngredientRepository;
+
+    private final ConcurrentMap<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<Long, Set<Long>> usages = new ConcurrentHashMap<>();
+
+    private final AtomicLong clock = new AtomicLong();
+
+    public RecipeIndex(ProductRepository productRepository, ProductIngredientRepository productIngredientRepository) {
+        this.productRepository = productRepository;
+        this.productIngredientRepository = productIngredientRepository;
+    }
+
+    public Map<Long, Recipe> getRecipes(Collection<Long> productIds) {
+        Map<Long, Recipe> recipes = new HashMap<>(productIds.size() * 2);
+        List<Long> missingProductIds = new ArrayList<>();
+
+        for (Long productId : productIds) {
+            Entry entry = entries.get(productId);
+            if (entry != null && entry.recipe() != null) {
+                recipes.put(productId, entry.recipe());
+            } else {
+                missingProductIds.add(productId);
+            }
+        }
+
+        if (!missingProductIds.isEmpty()) {
+            Map<Long, Recipe> loaded = Recipe.byProduct(
+                    productRepository.findIdsByIdIn(missingProductIds),
+                    productIngredientRepository.findRecipeLinesByProductIdIn(missingProductIds)
+            );
+
+            long version = clock.incrementAndGet();
+            loaded.forEach((productId, recipe) -> write(productId, new Entry(recipe, version), current -> current == null));
+            recipes.putAll(loaded);
+        }
+
+        return recipes;
+    }
+
+    public Map<Long, Recipe> getAllRecipes() {
+        Map<Long, Recipe> recipes = new HashMap<>(entries.size() * 2);
+        entries.forEach((productId, entry) -> {
+            if (entry.recipe() != null) {
+                recipes.put(productId, entry.recipe());
+            }
+        });
+        return recipes;
+    }
+
+    public List<IngredientUsage> getUsages(Long ingredientId) {
+        Set<Long> productIds = usages.get(ingredientId);
+        if (productIds == null) {
+            return Collections.emptyList();
+        }
+
+        List<IngredientUsage> ingredientUsages = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            Entry entry = entries.get(productId);
+            if (entry == null || entry.recipe() == null) {
+                continue;
+            }
+
+            double quantity = 0;
+            boolean used = false;
+            for (int line = 0; line < entry.recipe().size(); line++) {
+                if (entry.recipe().getIngredientId(line) == ingredientId) {
+                    quantity += entry.recipe().getQuantity(line);
+                    used = true;
+                }
+            }
+
+            if (used) {
+                ingredientUsages.add(new IngredientUsage(productId, quantity));
+            }
+        }
+
+        ingredientUsages.sort(Comparator.comparing(IngredientUsage::getProductId));
+        return ingredientUsages;
+    }
+
+    public void put(Long productId, Recipe recipe) {
+        TransactionCallbacks.afterCommit(() -> write(productId, new Entry(recipe, clock.incrementAndGet()), current -> true));
+    }
+
+    public void remove(Long productId) {
+        TransactionCallbacks.afterCommit(() -> write(productId, new Entry(null, clock.incrementAndGet()), current -> true));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${sweetify.recipes.refresh-interval:PT5M}", initialDelayString = "${sweetify.recipes.refresh-interval:PT5M}")
+    public void reload() {
+        long snapshotVersion = clock.incrementAndGet();
+        Map<Long, Recipe> snapshot = Recipe.byProduct(productRepository.findAllIds(), productIngredientRepository.findAllRecipeLines());
+
+        snapshot.forEach((productId, recipe) -> write(
+                productId,
+                new Entry(recipe, snapshotVersion),
+                current -> current == null || current.version() <= snapshotVersion
+        ));
+
+        for (Long productId : entries.keySet()) {
+            if (!snapshot.containsKey(productId)) {
+                write(productId, null, current -> current != null && current.version() < snapshotVersion);
+            }
+        }
+    }
+
+    /**
+     * Replaces the entry of a product with {@code next} (or drops it when null) if {@code replace}
+     * accepts the current entry, moving the product between ingredients in the reverse index within
+     * the same atomic update.
+     */
+    private void write(Long productId, Entry next, Predicate<Entry> replace) {
+        entries.compute(productId, (id, current) -> {
+            if (!replace.test(current)) {
+                return current;
+            }
+
+            unindex(productId, current);
+            index(productId, next);
+            return next;
+        });
+    }
+
+    private void index(Long productId, Entry entry) {
+        if (entry == null || entry.recipe() == null) {
+            return;
+        }
+
+        for (int line = 0; line < entry.recipe().size(); line++) {
+            usages.compute(entry.recipe().getIngredientId(line), (ingredientId, productIds) -> {
+                Set<Long> updated = productIds == null ? ConcurrentHashMap.newKeySet() : productIds;
+                updated.add(productId);
+                return updated;
+            });
+        }
+    }
+
+    private void unindex(Long productId, Entry entry) {
+        if (entry == null || entry.recipe() == null) {
+            return;
+        }
+
+        for (int line = 0; line < entry.recipe().size(); line++) {
+            usages.computeIfPresent(entry.recipe().getIngredientId(line), (ingredientId, productIds) -> {
+                productIds.remove(productId);
+                return productIds.isEmpty() ? null : productIds;
+            });
+        }
+    }
+
+    /**
+     * A recipe, or a tombstone for a deleted product when {@code recipe} is null, stamped with
+     * the clock value at which it was written so a reload never overwrites newer local writes.
+     */
+    private record Entry(Recipe recipe, long version) {
+    }
+}
@@ -0,0 +1,95 @@
+package com.frcalderon.products.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Open-addressing {@code long -> double} map used to sum ingredient stock deltas without
+ * boxing every recipe line. Only the final per-ingredient totals are boxed by {@link #toMap()}.
+ */
+public class StockDeltaAccumulator {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] keys;
+
+    private double[] values;
+
+    private boolean[] used;
+
+    private int size;
+
+    public StockDeltaAccumulator() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public StockDeltaAccumulator(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 2) * 2 - 1) << 1;
+        this.keys = new long[capacity];
+        this.values = new double[capacity];
+        this.used = new boolean[capacity];
+    }
+
+    public void add(long ingredientId, double delta) {
+        int slot = slotOf(ingredientId, keys, used);
+
+        if (used[slot]) {
+            values[slot] += delta;
+            return;
+        }
+
+        used[slot] = true;
+        keys[slot] = ingredientId;
+        values[slot] = delta;
+
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Map<Long, Double> toMap() {
+        Map<Long, Double> stockDeltas = new HashMap<>(size * 2);
+
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) {
+                stockDeltas.put(keys[i], values[i]);
+            }
+        }
+
+        return stockDeltas;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        double[] oldValues = values;
+        boolean[] oldUsed = used;
+
+        keys = new long[oldKeys.length * 2];
+        values = new double[oldKeys.length * 2];
+        used = new boolean[oldKeys.length * 2];
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int slot = slotOf(oldKeys[i], keys, used);
+                used[slot] = true;
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int slotOf(long key, long[] keys, boolean[] used) {
+        int mask = keys.length - 1;
+        int slot = Long.hashCode(key * 0x9E3779B97F4A7C15L) & mask;
+
+        while (used[slot] && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+}
@@ -0,0 +1,435 @@
+package com.frcalderon.products.service;
+
+import com.frcalderon.products.config.StockLedgerProperties;
+import com.frcalderon.products.controller.dto.IngredientResponse;
+import com.frcalderon.products.exceptions.IngredientNotFoundException;
+import com.frcalderon.products.model.AggregateType;
+import com.frcalderon.products.model.ChangeType;
+import com.frcalderon.products.model.Ingredient;
+import com.frcalderon.products.outbox.OutboxWriter;
+import com.frcalderon.products.repository.IngredientRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Optional write-behind store for ingredient stock. When enabled, stock mutations are applied to
+ * in-memory accounts guarded by striped locks and acknowledged immediately; the accumulated
+ * deltas are written to the {@code Ingredient} table every flush interval with atomic increments,
+ * so database stock lags memory by at most one interval. Pending deltas are flushed on shutdown.
+ * Deltas applied inside a transaction only reach the accounts once it commits, so a rolled back
+ * or retried attempt never leaves anything behind to flush. Stock change events are appended to
+ * the outbox by the flush, carrying the version it wrote, since in-memory stock has none.
+ */
+@Slf4j
+@Component
+public class StockLedger {
+
+    private final IngredientRepository ingredientRepository;
+
+    private final OutboxWriter outboxWriter;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+
+    private final ReentrantLock[] stripes;
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final ConcurrentMap<Long, Account> accounts = new ConcurrentHashMap<>();
+
+    private final Timer flushTimer;
+
+    private volatile long lastFlushNanos = System.nanoTime();
+
+    public StockLedger(IngredientRepository ingredientRepository,
+                       OutboxWriter outboxWriter,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       StockLedgerProperties stockLedgerProperties) {
+        this.ingredientRepository = ingredientRepository;
+        this.outboxWriter = outboxWriter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = stockLedgerProperties.isEnabled();
+        this.stripes = new ReentrantLock[Integer.highestOneBit(Math.max(stockLedgerProperties.getStripes(), 1) * 2 - 1)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+
+        this.flushTimer = Timer.builder("sweetify.stock.ledger.flush")
+                .description("Time spent writing pending stock deltas to the database")
+                .register(meterRegistry);
+        Gauge.builder("sweetify.stock.ledger.pending.ingredients", this, StockLedger::getPendingIngredients)
+                .description("Ingredients with stock deltas not yet written to the database")
+                .register(meterRegistry);
+        Gauge.builder("sweetify.stock.ledger.flush.lag", this, StockLedger::getFlushLagSeconds)
+                .description("Seconds since pending stock deltas were last written to the database")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Ingredient apply(Long ingredientId, double delta) {
+        Account account = accounts.get(ingredientId);
+
+        if (account == null) {
+            Ingredient ingredient = ingredientRepository.findById(ingredientId)
+                    .orElseThrow(IngredientNotFoundException::new);
+            account = accounts.computeIfAbsent(ingredientId, id -> new Account(ingredient));
+        }
+
+        Map<Long, Double> uncommittedDeltas = uncommittedDeltas();
+        if (uncommittedDeltas == null) {
+            return account.apply(delta, stripeOf(ingredientId));
+        }
+
+        return account.preview(uncommittedDeltas.merge(ingredientId, delta, Double::sum), stripeOf(ingredientId));
+    }
+
+    public List<Ingredient> applyAll(Map<Long, Double> stockDeltas) {
+        List<Long> missingIngredientIds = new ArrayList<>();
+        for (Long ingredientId : stockDeltas.keySet()) {
+            if (!accounts.containsKey(ingredientId)) {
+                missingIngredientIds.add(ingredientId);
+            }
+        }
+
+        if (!missingIngredientIds.isEmpty()) {
+            List<Ingredient> ingredients = ingredientRepository.findAllById(missingIngredientIds);
+
+            if (ingredients.size() != missingIngredientIds.size()) {
+                throw new IngredientNotFoundException();
+            }
+
+            for (Ingredient ingredient : ingredients) {
+                accounts.computeIfAbsent(ingredient.getId(), id -> new Account(ingredient));
+            }
+        }
+
+        List<Ingredient> updatedIngredients = new ArrayList<>(stockDeltas.size());
+        for (Long ingredientId : new TreeSet<>(stockDeltas.keySet())) {
+            updatedIngredients.add(apply(ingredientId, stockDeltas.get(ingredientId)));
+        }
+
+        return updatedIngredients;
+    }
+
+    public Ingredient withPendingStock(Ingredient ingredient) {
+        Account account = accounts.get(ingredient.getId());
+        return account == null ? ingredient : account.snapshot(stripeOf(ingredient.getId()));
+    }
+
+    public Double getStock(Long ingredientId) {
+        Account account = accounts.get(ingredientId);
+        return account == null ? null : account.snapshot(stripeOf(ingredientId)).getStock();
+    }
+
+    /**
+     * Drops the account once the current transaction commits, discarding its pending delta. Until
+     * then the account is left out of flushes, and a rollback puts it back as it was.
+     */
+    public void forget(Long ingredientId) {
+        Account account = accounts.get(ingredientId);
+        if (account == null) {
+            return;
+        }
+
+        ReentrantLock lock = stripeOf(ingredientId);
+        account.retire(lock);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accounts.remove(ingredientId, account);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    accounts.remove(ingredientId, account);
+                } else {
+                    account.reinstate(lock);
+                }
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${sweetify.stock.ledger.flush-interval:PT1S}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+
+        flushLock.lock();
+        try {
+            flushTimer.record(this::flushPending);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    public int getPendingIngredients() {
+        int pendingIngredients = 0;
+        for (Map.Entry<Long, Account> entry : accounts.entrySet()) {
+            if (entry.getValue().hasPending(stripeOf(entry.getKey()))) {
+                pendingIngredients++;
+            }
+        }
+        return pendingIngredients;
+    }
+
+    public double getFlushLagSeconds() {
+        return (double) (System.nanoTime() - lastFlushNanos) / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    private void flushPending() {
+        Map<Long, Double> drained = new TreeMap<>();
+        accounts.forEach((ingredientId, account) -> {
+            double pending = account.drain(stripeOf(ingredientId));
+            if (pending != 0) {
+                drained.put(ingredientId, pending);
+            }
+        });
+
+        if (drained.isEmpty()) {
+            lastFlushNanos = System.nanoTime();
+            return;
+        }
+
+        try {
+            Map<Long, Optional<Ingredient>> flushed = transactionTemplate.execute(status -> {
+                Map<Long, Optional<Ingredient>> updated = new TreeMap<>();
+                drained.forEach((ingredientId, delta) -> updated.put(ingredientId, ingredientRepository.addStock(ingredientId, delta)));
+
+                List<Ingredient> written = updated.values().stream().flatMap(Optional::stream).toList();
+                outboxWriter.appendAll(AggregateType.INGREDIENT, ChangeType.STOCK_CHANGED, written, Ingredient::getId, Ingredient::getVersion, IngredientResponse::new);
+                return updated;
+            });
+
+            flushed.forEach((ingredientId, ingredient) -> {
+                if (ingredient.isPresent()) {
+                    Account account = accounts.get(ingredientId);
+                    if (account != null) {
+                        account.reconcile(ingredient.get().getStock(), stripeOf(ingredientId));
+                    }
+                } else {
+                    accounts.remove(ingredientId);
+                }
+            });
+
+            lastFlushNanos = System.nanoTime();
+        } catch (RuntimeException e) {
+            log.warn("Could not flush stock deltas for {} ingredients, retrying on next flush", drained.size(), e);
+            drained.forEach((ingredientId, delta) -> {
+                Account account = accounts.get(ingredientId);
+                if (account != null) {
+                    account.restore(delta, stripeOf(ingredientId));
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns the deltas applied by the current transaction, registering them to be merged into
+     * the accounts after commit, or {@code null} when there is no transaction to wait for.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<Long, Double> uncommittedDeltas() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+
+        Map<Long, Double> uncommittedDeltas = (Map<Long, Double>) TransactionSynchronizationManager.getResource(this);
+        if (uncommittedDeltas != null) {
+            return uncommittedDeltas;
+        }
+
+        Map<Long, Double> deltas = new TreeMap<>();
+        TransactionSynchronizationManager.bindResource(this, deltas);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deltas.forEach(StockLedger.this::merge);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(StockLedger.this);
+            }
+        });
+        return deltas;
+    }
+
+    private void merge(Long ingredientId, double delta) {
+        Account account = accounts.get(ingredientId);
+
+        if (account == null) {
+            // Forgotten by an update that committed meanwhile; start again from the stored stock.
+            Optional<Ingredient> ingredient = ingredientRepository.findById(ingredientId);
+            if (ingredient.isEmpty()) {
+                return;
+            }
+            account = accounts.computeIfAbsent(ingredientId, id -> new Account(ingredient.get()));
+        }
+
+        account.apply(delta, stripeOf(ingredientId));
+    }
+
+    private ReentrantLock stripeOf(Long ingredientId) {
+        return stripes[Long.hashCode(ingredientId * 0x9E3779B97F4A7C15L) & (stripes.length - 1)];
+    }
+
+    private static final class Account {
+
+        private final Long id;
+
+        private final String name;
+
+        private final String units;
+
+        private final Double reorderThreshold;
+
+        private double stock;
+
+        private double pending;
+
+        private int retirements;
+
+        private Account(Ingredient ingredient) {
+            this.id = ingredient.getId();
+            this.name = ingredient.getName();
+            this.units = ingredient.getUnits();
+            this.reorderThreshold = ingredient.getReorderThreshold();
+            this.stock = ingredient.getStock() == null ? 0 : ingredient.getStock();
+        }
+
+        private Ingredient apply(double delta, ReentrantLock lock) {
+            lock.lock();
+            try {
+                stock += delta;
+                pending += delta;
+                return toIngredient();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private Ingredient preview(double delta, ReentrantLock lock) {
+            lock.lock();
+            try {
+                Ingredient ingredient = toIngredient();
+                ingredient.setStock(stock + delta);
+                return ingredient;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private Ingredient snapshot(ReentrantLock lock) {
+            lock.lock();
+            try {
+                return toIngredient();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private double drain(ReentrantLock lock) {
+            lock.lock();
+            try {
+                if (retirements > 0) {
+                    return 0;
+                }
+
+                double drained = pending;
+                pending = 0;
+                return drained;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void restore(double delta, ReentrantLock lock) {
+            lock.lock();
+            try {
+                pending += delta;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean hasPending(ReentrantLock lock) {
+            lock.lock();
+            try {
+                return pending != 0;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void retire(ReentrantLock lock) {
+            lock.lock();
+            try {
+                retirements++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void reinstate(ReentrantLock lock) {
+            lock.lock();
+            try {
+                retirements--;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void reconcile(double databaseStock, ReentrantLock lock) {
+            lock.lock();
+            try {
+                stock = databaseStock + pending;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private Ingredient toIngredient() {
+            return Ingredient.builder()
+                    .id(id)
+                    .name(name)
+                    .units(units)
+                    .stock(stock)
+                    .reorderThreshold(reorderThreshold)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.frcalderon.products.service;
+
+import com.frcalderon.products.config.StockMovementProperties;
+import com.frcalderon.products.model.StockMovement;
+import com.frcalderon.products.model.StockMovementReason;
+import com.frcalderon.products.repository.StockMovementRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Appends {@link StockMovement} rows for every stock mutation. Movements of one request are
+ * inserted together with {@code saveAll}, in the caller's transaction, so they go out as JDBC
+ * batches and roll back with the stock change. When buffering is enabled they are queued after
+ * commit instead and inserted every flush interval, batching across requests. Either way the
+ * database stamps a movement with its change sequence when it is inserted, inside that
+ * transaction's change window, so snapshots never fold past a movement that was still waiting in
+ * the buffer or not yet committed.
+ */
+@Slf4j
+@Component
+public class StockMovementRecorder {
+
+    static final String REQUEST_ID_HEADER = "X-Request-Id";
+
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private static final String REQUEST_ID_ATTRIBUTE = StockMovementRecorder.class.getName() + ".requestId";
+
+    private static final int FLUSH_BATCH_SIZE = 1000;
+
+    private final StockMovementRepository stockMovementRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+
+    private final boolean buffered;
+
+    private final Queue<StockMovement> buffer = new ConcurrentLinkedQueue<>();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public StockMovementRecorder(StockMovementRepository stockMovementRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 StockMovementProperties stockMovementProperties) {
+        this.stockMovementRepository = stockMovementRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = stockMovementProperties.isEnabled();
+        this.buffered = stockMovementProperties.isBuffered();
+    }
+
+    public static StockMovement movement(Long ingredientId, double delta, StockMovementReason reason) {
+        return movement(ingredientId, delta, reason, null);
+    }
+
+    public static StockMovement movement(Long ingredientId, double delta, StockMovementReason reason, Long productId) {
+        return StockMovement.builder()
+                .ingredientId(ingredientId)
+                .delta(delta)
+                .reason(reason)
+                .productId(productId)
+                .build();
+    }
+
+    public void record(StockMovement movement) {
+        record(List.of(movement));
+    }
+
+    public void record(List<StockMovement> movements) {
+        if (!enabled || movements.isEmpty()) {
+            return;
+        }
+
+        String requestId = currentRequestId();
+        for (StockMovement movement : movements) {
+            movement.setRequestId(requestId);
+        }
+
+        if (buffered) {
+            TransactionCallbacks.afterCommit(() -> buffer.addAll(movements));
+        } else {
+            stockMovementRepository.saveAll(movements);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${sweetify.stock.movements.flush-interval:PT1S}")
+    public void flush() {
+        if (!buffered || !flushLock.tryLock()) {
+            return;
+        }
+
+        try {
+            List<StockMovement> drained = new ArrayList<>(FLUSH_BATCH_SIZE);
+            StockMovement movement;
+            while ((movement = buffer.poll()) != null) {
+                drained.add(movement);
+                if (drained.size() == FLUSH_BATCH_SIZE) {
+                    insert(drained);
+                    drained = new ArrayList<>(FLUSH_BATCH_SIZE);
+                }
+            }
+
+            if (!drained.isEmpty()) {
+                insert(drained);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    public int getBufferedMovements() {
+        return buffer.size();
+    }
+
+    private void insert(List<StockMovement> movements) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> stockMovementRepository.saveAll(movements));
+        } catch (RuntimeException e) {
+            log.warn("Could not insert {} stock movements, retrying on next flush", movements.size(), e);
+            movements.forEach(movement -> movement.setId(null));
+            buffer.addAll(movements);
+        }
+    }
+
+    /**
+     * Identifies the HTTP request behind a movement: the caller's {@code X-Request-Id}, else its
+     * {@code Idempotency-Key}, else an id generated once per request. Null outside a request.
+     */
+    private static String currentRequestId() {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (!(requestAttributes instanceof ServletRequestAttributes servletRequestAttributes)) {
+            return null;
+        }
+
+        Object requestId = requestAttributes.getAttribute(REQUEST_ID_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (requestId == null) {
+            HttpServletRequest request = servletRequestAttributes.getRequest();
+            requestId = request.getHeader(REQUEST_ID_HEADER) != null ? request.getHeader(REQUEST_ID_HEADER)
+                    : request.getHeader(IDEMPOTENCY_KEY_HEADER) != null ? request.getHeader(IDEMPOTENCY_KEY_HEADER)
+                    : UUID.randomUUID().toString();
+            requestAttributes.setAttribute(REQUEST_ID_ATTRIBUTE, requestId, RequestAttributes.SCOPE_REQUEST);
+        }
+
+        return (String) requestId;
+    }
+}
@@ -0,0 +1,78 @@
+package com.frcalderon.products.service;
+
+import com.frcalderon.products.config.StockMovementProperties;
+import com.frcalderon.products.exceptions.IngredientNotFoundException;
+import com.frcalderon.products.model.IngredientStock;
+import com.frcalderon.products.model.StockSnapshot;
+import com.frcalderon.products.repository.IngredientRepository;
+import com.frcalderon.products.repository.StockMovementRepository;
+import com.frcalderon.products.repository.StockSnapshotRepository;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Slf4j
+@Service
+@AllArgsConstructor
+public class StockMovementService {
+
+    private final IngredientRepository ingredientRepository;
+
+    private final StockMovementRepository stockMovementRepository;
+
+    private final StockSnapshotRepository stockSnapshotRepository;
+
+    private final CatalogChangeService catalogChangeService;
+
+    private final StockMovementProperties stockMovementProperties;
+
+    /**
+     * Recomputes an ingredient's stock from the movement ledger: its latest snapshot plus the
+     * movements it has not folded yet.
+     */
+    @Transactional(readOnly = true)
+    public IngredientStock replayStock(Long ingredientId) {
+        if (!ingredientRepository.existsById(ingredientId)) {
+            throw new IngredientNotFoundException();
+        }
+
+        StockSnapshot snapshot = stockSnapshotRepository.findById(ingredientId)
+                .filter(found -> found.getFoldedBefore() != null)
+                .orElseGet(() -> StockSnapshot.builder().ingredientId(ingredientId).stock(0.0).foldedBefore(0L).build());
+
+        double tail = stockMovementRepository.sumDeltaByIngredientIdAndChangeSeqFrom(ingredientId, snapshot.getFoldedBefore());
+
+        return new IngredientStock(ingredientId, snapshot.getStock() + tail);
+    }
+
+    /**
+     * Seeds snapshots for ingredients that have none, so ingredients stocked before the movement
+     * ledger existed replay to their current stock. Snapshots are taken at the commit horizon of
+     * the change sequence, so no movement still in flight is ever folded or skipped.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedSnapshots() {
+        if (!stockMovementProperties.isEnabled() || !catalogChangeService.isWindowed()) {
+            return;
+        }
+
+        int seeded = stockSnapshotRepository.seed(catalogChangeService.visibleBefore());
+
+        if (seeded > 0) {
+            log.info("Seeded stock snapshots for {} ingredients from their current stock", seeded);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${sweetify.stock.movements.snapshot-interval:PT10M}", initialDelayString = "${sweetify.stock.movements.snapshot-interval:PT10M}")
+    public void snapshot() {
+        if (!stockMovementProperties.isEnabled() || !catalogChangeService.isWindowed()) {
+            return;
+        }
+
+        stockSnapshotRepository.snapshot(catalogChangeService.visibleBefore());
+    }
+}
@@ -0,0 +1,35 @@
+package com.frcalderon.products.service;
+
+import org.springframework.core.annotation.AliasFor;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Retries a version-checked catalog write when its optimistic lock fails, with jittered
+ * exponential backoff configured under {@code sweetify.stock.retry}, and reports attempts to the
+ * {@code stockRetryListener}. Stock deltas need no retry: they are applied by an atomic update.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Retryable(
+        retryFor = ConcurrencyFailureException.class,
+        maxAttemptsExpression = "${sweetify.stock.retry.max-attempts:4}",
+        backoff = @Backoff(delayExpression = "${sweetify.stock.retry.delay:20}", maxDelayExpression = "${sweetify.stock.retry.max-delay:200}", multiplier = 2, random = true),
+        listeners = "stockRetryListener"
+)
+public @interface StockRetryable {
+
+    /**
+     * Operation name reported in the {@code sweetify.stock.retries} metric.
+     */
+    @AliasFor(annotation = Retryable.class)
+    String label();
+}
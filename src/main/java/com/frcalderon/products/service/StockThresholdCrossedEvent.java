@@ -0,0 +1,18 @@
+package com.frcalderon.products.service;
+
+import com.frcalderon.products.model.LowStockIngredient;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Published by {@link LowStockIndex} after commit when an ingredient drops below its reorder
+ * threshold ({@code belowThreshold} is true) or recovers back to it.
+ */
+@Data
+@AllArgsConstructor
+public class StockThresholdCrossedEvent {
+
+    private LowStockIngredient ingredient;
+
+    private boolean belowThreshold;
+}
@@ -0,0 +1,61 @@
+package com.frcalderon.products.controller;
+
+import com.frcalderon.products.model.CatalogEntityType;
+import com.frcalderon.products.model.CatalogTombstone;
+import com.frcalderon.products.model.ProductChange;
+import com.frcalderon.products.service.CatalogChangeService;
+import com.frcalderon.products.service.CatalogChanges;
+import org.hamcrest.CoreMatchers;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@WebMvcTest(controllers = CatalogChangeController.class)
+@AutoConfigureMockMvc(addFilters = false)
+@ExtendWith(MockitoExtension.class)
+public class CatalogChangeControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CatalogChangeService catalogChangeService;
+
+    @Test
+    public void CatalogChangeController_GetChanges_ReturnChangesAndOk() throws Exception {
+        when(catalogChangeService.getChanges(10L, 100)).thenReturn(new CatalogChanges(
+                List.of(new ProductChange(11L, 1L, "Lotus cheesecake", "Handmade Lotus cheesecake", 4.5)),
+                Collections.emptyList(),
+                Collections.emptyList(),
+                List.of(new CatalogTombstone(12L, CatalogEntityType.PRODUCT_INGREDIENT, 6L, Instant.parse("2024-01-01T00:00:00Z"))),
+                12L,
+                false
+        ));
+
+        ResultActions response = mockMvc.perform(get("/changes")
+                .param("since", "10")
+                .contentType(MediaType.APPLICATION_JSON)
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.products[0].id", CoreMatchers.is(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.deleted[0].entityType", CoreMatchers.is("PRODUCT_INGREDIENT")))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nextSince", CoreMatchers.is(12)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.hasMore", CoreMatchers.is(false)));
+    }
+}
@@ -0,0 +1,213 @@
+package com.frcalderon.products.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.frcalderon.products.model.IdempotencyRecord;
+import com.frcalderon.products.service.IdempotencyService;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.mockito.Mockito.*;
+
+class IdempotencyFilterTests {
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    private IdempotencyFilter idempotencyFilter;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        idempotencyFilter = new IdempotencyFilter(idempotencyService, new ObjectMapper().findAndRegisterModules());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    public void IdempotencyFilter_FirstRequest_ExecuteAndStoreResponse() throws Exception {
+        when(idempotencyService.find("client-a:key-1")).thenReturn(Optional.empty());
+        when(idempotencyService.reserve(eq("client-a:key-1"), anyString())).thenReturn(true);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain filterChain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                resp.setStatus(200);
+                resp.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                resp.getWriter().write("{\"id\":1,\"stock\":5.0}");
+            }
+        });
+
+        idempotencyFilter.doFilter(stockRequest("key-1"), response, filterChain);
+
+        Assertions.assertEquals(200, response.getStatus());
+        Assertions.assertEquals("{\"id\":1,\"stock\":5.0}", response.getContentAsString());
+
+        verify(idempotencyService, times(1)).complete(eq("client-a:key-1"), eq(200), startsWith(MediaType.APPLICATION_JSON_VALUE), eq("{\"id\":1,\"stock\":5.0}"));
+    }
+
+    @Test
+    public void IdempotencyFilter_Replay_ReturnStoredResponseWithoutExecuting() throws Exception {
+        when(idempotencyService.find("client-a:key-1")).thenReturn(Optional.empty());
+        when(idempotencyService.reserve(eq("client-a:key-1"), anyString())).thenReturn(true);
+        idempotencyFilter.doFilter(stockRequest("key-1"), new MockHttpServletResponse(), new MockFilterChain());
+
+        ArgumentCaptor<String> fingerprint = ArgumentCaptor.forClass(String.class);
+        verify(idempotencyService).reserve(eq("client-a:key-1"), fingerprint.capture());
+
+        when(idempotencyService.find("client-a:key-1")).thenReturn(Optional.of(IdempotencyRecord.builder()
+                .idempotencyKey("client-a:key-1")
+                .requestFingerprint(fingerprint.getValue())
+                .responseStatus(200)
+                .responseContentType(MediaType.APPLICATION_JSON_VALUE)
+                .responseBody("{\"id\":1,\"stock\":5.0}")
+                .createdAt(Instant.now())
+                .build()));
+
+        MockFilterChain replayChain = new MockFilterChain();
+        MockHttpServletResponse replayResponse = new MockHttpServletResponse();
+        idempotencyFilter.doFilter(stockRequest("key-1"), replayResponse, replayChain);
+
+        Assertions.assertEquals(200, replayResponse.getStatus());
+        Assertions.assertEquals("{\"id\":1,\"stock\":5.0}", replayResponse.getContentAsString());
+        Assertions.assertNull(replayChain.getRequest());
+    }
+
+    @Test
+    public void IdempotencyFilter_SameKeyFromOtherCaller_ExecuteSeparately() throws Exception {
+        when(idempotencyService.find(anyString())).thenReturn(Optional.empty());
+        when(idempotencyService.reserve(anyString(), anyString())).thenReturn(true);
+
+        MockHttpServletRequest otherCaller = stockRequest("key-1");
+        otherCaller.setUserPrincipal(() -> "client-b");
+        MockFilterChain filterChain = new MockFilterChain();
+        idempotencyFilter.doFilter(otherCaller, new MockHttpServletResponse(), filterChain);
+
+        Assertions.assertNotNull(filterChain.getRequest());
+        verify(idempotencyService, times(1)).find("client-b:key-1");
+        verify(idempotencyService, times(1)).reserve(eq("client-b:key-1"), anyString());
+    }
+
+    @Test
+    public void IdempotencyFilter_ConcurrentRequest_ReturnConflict() throws Exception {
+        when(idempotencyService.find("client-a:key-1")).thenReturn(Optional.empty());
+        when(idempotencyService.reserve(eq("client-a:key-1"), anyString())).thenReturn(false);
+
+        MockFilterChain filterChain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        idempotencyFilter.doFilter(stockRequest("key-1"), response, filterChain);
+
+        Assertions.assertEquals(409, response.getStatus());
+        Assertions.assertNull(filterChain.getRequest());
+    }
+
+    @Test
+    public void IdempotencyFilter_FailureRolledBack_ReleaseKey() throws Exception {
+        when(idempotencyService.find("client-a:key-1")).thenReturn(Optional.empty());
+        when(idempotencyService.reserve(eq("client-a:key-1"), anyString())).thenReturn(true);
+        when(idempotencyService.mayHaveWritten(any(HttpServletRequest.class))).thenReturn(false);
+
+        MockFilterChain filterChain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                resp.setStatus(404);
+            }
+        });
+
+        idempotencyFilter.doFilter(stockRequest("key-1"), new MockHttpServletResponse(), filterChain);
+
+        verify(idempotencyService, times(1)).release("client-a:key-1");
+        verify(idempotencyService, never()).complete(anyString(), anyInt(), any(), any());
+    }
+
+    @Test
+    public void IdempotencyFilter_FailureAfterWrite_StoreErrorResponse() throws Exception {
+        when(idempotencyService.find("client-a:key-1")).thenReturn(Optional.empty());
+        when(idempotencyService.reserve(eq("client-a:key-1"), anyString())).thenReturn(true);
+        when(idempotencyService.mayHaveWritten(any(HttpServletRequest.class))).thenReturn(true);
+
+        MockFilterChain filterChain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) {
+                throw new IllegalStateException("failed after commit");
+            }
+        });
+
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> idempotencyFilter.doFilter(stockRequest("key-1"), new MockHttpServletResponse(), filterChain));
+
+        verify(idempotencyService, times(1)).complete(eq("client-a:key-1"), eq(500), eq(MediaType.APPLICATION_JSON_VALUE), contains("may have been applied"));
+        verify(idempotencyService, never()).release(anyString());
+    }
+
+    @Test
+    public void IdempotencyFilter_ReadListener_ReceiveCachedBody() throws Exception {
+        when(idempotencyService.find("client-a:key-1")).thenReturn(Optional.empty());
+        when(idempotencyService.reserve(eq("client-a:key-1"), anyString())).thenReturn(true);
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        AtomicBoolean allDataRead = new AtomicBoolean();
+
+        MockFilterChain filterChain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                ServletInputStream inputStream = req.getInputStream();
+                inputStream.setReadListener(new ReadListener() {
+                    @Override
+                    public void onDataAvailable() throws IOException {
+                        while (inputStream.isReady() && !inputStream.isFinished()) {
+                            read.write(inputStream.read());
+                        }
+                    }
+
+                    @Override
+                    public void onAllDataRead() {
+                        allDataRead.set(true);
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                    }
+                });
+            }
+        });
+
+        idempotencyFilter.doFilter(stockRequest("key-1"), new MockHttpServletResponse(), filterChain);
+
+        Assertions.assertEquals("{\"ingredientId\":1,\"stock\":5.0}", read.toString());
+        Assertions.assertTrue(allDataRead.get());
+    }
+
+    private MockHttpServletRequest stockRequest(String idempotencyKey) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/ingredients/stock/consume");
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, idempotencyKey);
+        request.setUserPrincipal(() -> "client-a");
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent("{\"ingredientId\":1,\"stock\":5.0}".getBytes());
+        return request;
+    }
+}
@@ -5,7 +5,12 @@ import com.frcalderon.products.controller.dto.IngredientRequest;
 import com.frcalderon.products.controller.dto.IngredientResponse;
 import com.frcalderon.products.controller.dto.IngredientStockRequest;
 import com.frcalderon.products.model.Ingredient;
+import com.frcalderon.products.model.IngredientStock;
+import com.frcalderon.products.model.IngredientUsage;
+import com.frcalderon.products.model.LowStockIngredient;
+import com.frcalderon.products.service.CatalogVersionService;
 import com.frcalderon.products.service.IngredientService;
+import com.frcalderon.products.service.StockMovementService;
 import org.hamcrest.CoreMatchers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,7 +20,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
@@ -24,6 +31,8 @@ import java.util.Collections;
 import java.util.List;
 
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 
@@ -38,6 +47,12 @@ public class IngredientControllerTests {
     @MockBean
     private IngredientService ingredientService;
 
+    @MockBean
+    private StockMovementService stockMovementService;
+
+    @MockBean
+    private CatalogVersionService catalogVersionService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -59,10 +74,10 @@ public class IngredientControllerTests {
     }
 
     @Test
-    public void IngredientController_GetAllIngredients_ReturnListOfIngredientResponseAndOk() throws Exception {
+    public void IngredientController_GetAllIngredients_ReturnPageOfIngredientResponseAndOk() throws Exception {
         List<Ingredient> ingredientResponseList = Collections.singletonList(ingredient);
 
-        when(ingredientService.getAllIngredients()).thenReturn(ingredientResponseList);
+        when(ingredientService.getAllIngredients(0L, 100)).thenReturn(new SliceImpl<>(ingredientResponseList));
 
         ResultActions response = mockMvc.perform(get("/ingredients")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -70,11 +85,84 @@ public class IngredientControllerTests {
 
         response.andExpect(MockMvcResultMatchers.status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath(
-                        "$.size()",
+                        "$.items.size()",
                         CoreMatchers.is(ingredientResponseList.size())
                 ));
     }
 
+    @Test
+    public void IngredientController_GetLowStockIngredients_ReturnLowStockAndOk() throws Exception {
+        when(ingredientService.getLowStockIngredients()).thenReturn(
+                Collections.singletonList(new LowStockIngredient(1L, "Butter", "kg", 1.5, 2.0, 0L))
+        );
+
+        ResultActions response = mockMvc.perform(get("/ingredients/low-stock")
+                .contentType(MediaType.APPLICATION_JSON)
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].ingredientId", CoreMatchers.is(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].reorderThreshold", CoreMatchers.is(2.0)));
+    }
+
+    @Test
+    public void IngredientController_GetIngredientUsages_ReturnUsagesAndOk() throws Exception {
+        when(ingredientService.getIngredientUsages(1L)).thenReturn(
+                List.of(new IngredientUsage(1L, 0.5), new IngredientUsage(3L, 0.25))
+        );
+
+        ResultActions response = mockMvc.perform(get("/ingredients/1/products")
+                .contentType(MediaType.APPLICATION_JSON)
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.size()", CoreMatchers.is(2)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].productId", CoreMatchers.is(3)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].quantity", CoreMatchers.is(0.25)));
+    }
+
+    @Test
+    public void IngredientController_GetIngredient_ReturnNotModifiedWithoutLoadingIngredient() throws Exception {
+        when(catalogVersionService.getIngredientETag(1L)).thenReturn("\"ingredient-1-3\"");
+
+        ResultActions response = mockMvc.perform(get("/ingredients/1")
+                .header("If-None-Match", "\"ingredient-1-3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isNotModified());
+        verify(ingredientService, times(0)).getIngredient(1L);
+    }
+
+    @Test
+    public void IngredientController_GetIngredient_RefreshStaleCachedIngredient() throws Exception {
+        Ingredient cached = Ingredient.builder().id(1L).version(2L).name("Butter").units("kg").stock(4.0).build();
+        Ingredient current = Ingredient.builder().id(1L).version(3L).name("Butter").units("kg").stock(7.0).build();
+        when(catalogVersionService.getIngredientETag(1L)).thenReturn("\"ingredient-1-3\"");
+        when(catalogVersionService.getIngredientETag(cached)).thenReturn("\"ingredient-1-2\"");
+        when(ingredientService.getIngredient(1L)).thenReturn(cached);
+        when(ingredientService.refreshIngredient(1L)).thenReturn(current);
+
+        ResultActions response = mockMvc.perform(get("/ingredients/1")
+                .contentType(MediaType.APPLICATION_JSON)
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.stock", CoreMatchers.is(7.0)));
+    }
+
+    @Test
+    public void IngredientController_ReplayStock_ReturnIngredientStockAndOk() throws Exception {
+        when(stockMovementService.replayStock(1L)).thenReturn(new IngredientStock(1L, 7.5));
+
+        ResultActions response = mockMvc.perform(get("/ingredients/1/stock/replay")
+                .contentType(MediaType.APPLICATION_JSON)
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.stock", CoreMatchers.is(7.5)));
+    }
+
     @Test
     public void IngredientController_GetIngredient_ReturnIngredientResponseAndOk() throws Exception {
         Long ingredientId = 1L;
@@ -148,6 +236,19 @@ public class IngredientControllerTests {
                 ));
     }
 
+    @Test
+    public void IngredientController_UpdateIngredientConcurrently_ReturnConflict() throws Exception {
+        when(ingredientService.updateIngredient(1L, ingredientRequest))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Ingredient.class, 1L));
+
+        ResultActions response = mockMvc.perform(put("/ingredients/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(ingredientRequest))
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isConflict());
+    }
+
     @Test
     public void IngredientController_DeleteIngredient_ReturnNoContent() throws Exception {
         Long ingredientId = 1L;
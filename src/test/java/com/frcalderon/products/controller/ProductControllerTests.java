@@ -1,6 +1,7 @@
 package com.frcalderon.products.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.frcalderon.products.config.ResponseCacheProperties;
 import com.frcalderon.products.controller.dto.ManageProductsRequest;
 import com.frcalderon.products.controller.dto.ProductIngredientRequest;
 import com.frcalderon.products.controller.dto.ProductRequest;
@@ -8,7 +9,13 @@ import com.frcalderon.products.controller.dto.ProductResponse;
 import com.frcalderon.products.model.Ingredient;
 import com.frcalderon.products.model.Product;
 import com.frcalderon.products.model.ProductIngredient;
+import com.frcalderon.products.service.AvailabilityService;
+import com.frcalderon.products.service.BatchResult;
+import com.frcalderon.products.service.CatalogVersionService;
+import com.frcalderon.products.service.ProductAvailability;
+import com.frcalderon.products.service.ProductSearchResult;
 import com.frcalderon.products.service.ProductService;
+import org.assertj.core.api.Assertions;
 import org.hamcrest.CoreMatchers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,6 +25,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
@@ -25,12 +35,19 @@ import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 
 @WebMvcTest(controllers = ProductController.class)
+@Import({SerializedResponseCache.class, ResponseCacheProperties.class})
 @AutoConfigureMockMvc(addFilters = false)
 @ExtendWith(MockitoExtension.class)
 public class ProductControllerTests {
@@ -41,6 +58,12 @@ public class ProductControllerTests {
     @MockBean
     private ProductService productService;
 
+    @MockBean
+    private AvailabilityService availabilityService;
+
+    @MockBean
+    private CatalogVersionService catalogVersionService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -88,10 +111,10 @@ public class ProductControllerTests {
     }
 
     @Test
-    public void ProductController_GetAllProducts_ReturnListOfProductResponseAndOk() throws Exception {
+    public void ProductController_GetAllProducts_ReturnPageOfProductResponseAndOk() throws Exception {
         List<Product> productResponseList = Collections.singletonList(product);
 
-        when(productService.getAllProducts()).thenReturn(productResponseList);
+        when(productService.getAllProducts(0L, 100)).thenReturn(new SliceImpl<>(productResponseList));
 
         ResultActions response = mockMvc.perform(get("/products")
                 .contentType(MediaType.APPLICATION_JSON)
@@ -99,11 +122,200 @@ public class ProductControllerTests {
 
         response.andExpect(MockMvcResultMatchers.status().isOk())
                 .andExpect(MockMvcResultMatchers.jsonPath(
-                        "$.size()",
+                        "$.items.size()",
                         CoreMatchers.is(productResponseList.size())
+                ))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    public void ProductController_GetAllProducts_ReturnNextCursorWhenMoreProducts() throws Exception {
+        List<Product> productResponseList = Collections.singletonList(product);
+
+        when(productService.getAllProducts(0L, 1)).thenReturn(
+                new SliceImpl<>(productResponseList, PageRequest.of(0, 1), true)
+        );
+
+        ResultActions response = mockMvc.perform(get("/products")
+                .param("after", "0")
+                .param("limit", "1")
+                .contentType(MediaType.APPLICATION_JSON)
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath(
+                        "$.nextCursor",
+                        CoreMatchers.is(product.getId().intValue())
                 ));
     }
 
+    @Test
+    public void ProductController_GetProduct_ReturnETagAndOk() throws Exception {
+        when(catalogVersionService.getProductETag(1L)).thenReturn("\"product-1-abc\"");
+        when(catalogVersionService.getProductETag(product)).thenReturn("\"product-1-abc\"");
+        when(productService.getProduct(1L)).thenReturn(product);
+
+        ResultActions response = mockMvc.perform(get("/products/1")
+                .contentType(MediaType.APPLICATION_JSON)
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"product-1-abc\""))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.name", CoreMatchers.is(product.getName())));
+    }
+
+    @Test
+    public void ProductController_GetProduct_ServeCachedBytesUntilETagChanges() throws Exception {
+        when(catalogVersionService.getProductETag(1L)).thenReturn("\"product-1-cached\"");
+        when(catalogVersionService.getProductETag(product)).thenReturn("\"product-1-cached\"");
+        when(productService.getProduct(1L)).thenReturn(product);
+
+        mockMvc.perform(get("/products/1")).andExpect(MockMvcResultMatchers.status().isOk());
+        mockMvc.perform(get("/products/1"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.name", CoreMatchers.is(product.getName())));
+
+        verify(productService, times(1)).getProduct(1L);
+
+        when(catalogVersionService.getProductETag(1L)).thenReturn("\"product-1-changed\"");
+        when(catalogVersionService.getProductETag(product)).thenReturn("\"product-1-changed\"");
+
+        mockMvc.perform(get("/products/1")).andExpect(MockMvcResultMatchers.status().isOk());
+
+        verify(productService, times(2)).getProduct(1L);
+    }
+
+    @Test
+    public void ProductController_GetProduct_CacheUnderETagOfLoadedProduct() throws Exception {
+        when(catalogVersionService.getProductETag(1L)).thenReturn("\"product-1-before\"");
+        when(catalogVersionService.getProductETag(product)).thenReturn("\"product-1-after\"");
+        when(productService.getProduct(1L)).thenReturn(product);
+
+        mockMvc.perform(get("/products/1"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"product-1-after\""));
+        mockMvc.perform(get("/products/1")).andExpect(MockMvcResultMatchers.status().isOk());
+
+        verify(productService, times(2)).getProduct(1L);
+
+        when(catalogVersionService.getProductETag(1L)).thenReturn("\"product-1-after\"");
+
+        mockMvc.perform(get("/products/1"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"product-1-after\""));
+
+        verify(productService, times(2)).getProduct(1L);
+    }
+
+    @Test
+    public void ProductController_GetProduct_ReturnGzipWhenAccepted() throws Exception {
+        when(catalogVersionService.getProductETag(1L)).thenReturn("\"product-1-abc\"");
+        when(catalogVersionService.getProductETag(product)).thenReturn("\"product-1-abc\"");
+        when(productService.getProduct(1L)).thenReturn(product);
+
+        ResultActions response = mockMvc.perform(get("/products/1")
+                .header("Accept-Encoding", "gzip, deflate")
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("Content-Encoding", "gzip"))
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"product-1-abc-gzip\""));
+    }
+
+    @Test
+    public void ProductController_GetProduct_ReturnNotModifiedWithoutLoadingProduct() throws Exception {
+        when(catalogVersionService.getProductETag(1L)).thenReturn("\"product-1-abc\"");
+
+        ResultActions response = mockMvc.perform(get("/products/1")
+                .header("If-None-Match", "\"product-1-abc\"")
+                .contentType(MediaType.APPLICATION_JSON)
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isNotModified());
+        verify(productService, times(0)).getProduct(1L);
+    }
+
+    @Test
+    public void ProductController_GetAllProducts_ReturnNotModifiedWithoutLoadingProducts() throws Exception {
+        when(catalogVersionService.getProductsETag(0L, 100)).thenReturn("\"products-0-100-abc\"");
+
+        ResultActions response = mockMvc.perform(get("/products")
+                .header("If-None-Match", "\"products-0-100-abc\"")
+                .contentType(MediaType.APPLICATION_JSON)
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isNotModified());
+        verify(productService, times(0)).getAllProducts(any(), anyInt());
+    }
+
+    @Test
+    public void ProductController_GetAllProducts_CacheUnderETagOfLoadedPage() throws Exception {
+        SliceImpl<Product> products = new SliceImpl<>(Collections.singletonList(product));
+
+        when(catalogVersionService.getProductsETag(0L, 100)).thenReturn("\"products-0-100-before\"");
+        when(catalogVersionService.getProductsETag(0L, 100, products)).thenReturn("\"products-0-100-after\"");
+        when(productService.getAllProducts(0L, 100)).thenReturn(products);
+
+        mockMvc.perform(get("/products"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"products-0-100-after\""));
+        mockMvc.perform(get("/products")).andExpect(MockMvcResultMatchers.status().isOk());
+
+        verify(productService, times(2)).getAllProducts(0L, 100);
+    }
+
+    @Test
+    public void ProductController_GetAvailability_ReturnAvailabilityAndOk() throws Exception {
+        when(availabilityService.getAvailability(List.of(1L))).thenReturn(
+                Collections.singletonList(new ProductAvailability(1L, 11L))
+        );
+
+        ResultActions response = mockMvc.perform(get("/products/availability")
+                .param("ids", "1")
+                .contentType(MediaType.APPLICATION_JSON)
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].productId", CoreMatchers.is(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].available", CoreMatchers.is(11)));
+    }
+
+    @Test
+    public void ProductController_SearchProducts_ReturnRankedResultsAndOk() throws Exception {
+        when(productService.searchProducts("lotus", 20)).thenReturn(
+                Collections.singletonList(new ProductSearchResult(1L, "Lotus cheesecake", "Handmade Lotus cheesecake", 4.5, 4.0))
+        );
+
+        ResultActions response = mockMvc.perform(get("/products/search")
+                .param("q", "lotus")
+                .contentType(MediaType.APPLICATION_JSON)
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].id", CoreMatchers.is(1)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].name", CoreMatchers.is("Lotus cheesecake")));
+    }
+
+    @Test
+    public void ProductController_ExportProducts_ReturnNdjsonAndOk() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<Product> productConsumer = invocation.getArgument(0);
+            productConsumer.accept(product);
+            productConsumer.accept(product);
+            return null;
+        }).when(productService).exportProducts(any());
+
+        ResultActions response = mockMvc.perform(get("/products/export"));
+
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(result -> {
+                    String[] lines = result.getResponse().getContentAsString().split("\n");
+                    Assertions.assertThat(lines).hasSize(2);
+                    Assertions.assertThat(objectMapper.readTree(lines[0]).get("name").asText()).isEqualTo(product.getName());
+                });
+    }
+
     @Test
     public void ProductController_GetProduct_ReturnProductResponseAndOk() throws Exception {
         Long productId = 1L;
@@ -152,6 +364,26 @@ public class ProductControllerTests {
                 ));
     }
 
+    @Test
+    public void ProductController_CreateProducts_ReturnBatchItemResponsesAndOk() throws Exception {
+        when(productService.createProducts(List.of(productRequest, productRequest))).thenReturn(List.of(
+                BatchResult.created(0, product),
+                BatchResult.failed(1, "Ingredient not found")
+        ));
+
+        ResultActions response = mockMvc.perform(post("/products/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(productRequest, productRequest)))
+        );
+
+        response.andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.size()", CoreMatchers.is(2)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].status", CoreMatchers.is(201)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].item.name", CoreMatchers.is(productResponse.getName())))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].status", CoreMatchers.is(400)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[1].error", CoreMatchers.is("Ingredient not found")));
+    }
+
     @Test
     public void ProductController_UpdateProduct_ReturnProductResponseAndOk() throws Exception {
         Long productId = 1L;
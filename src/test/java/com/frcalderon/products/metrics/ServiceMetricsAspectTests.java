@@ -0,0 +1,57 @@
+package com.frcalderon.products.metrics;
+
+import com.frcalderon.products.exceptions.ProductNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.stereotype.Service;
+
+class ServiceMetricsAspectTests {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private SampleService sampleService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new SampleService());
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new ServiceMetricsAspect(meterRegistry));
+        sampleService = proxyFactory.getProxy();
+    }
+
+    @Test
+    public void ServiceMetricsAspect_Success_RecordSuccessOutcome() {
+        sampleService.find(1L);
+
+        Assertions.assertEquals(1, meterRegistry.get(ServiceMetricsAspect.METRIC_NAME)
+                .tags("operation", "SampleService.find", "outcome", "success")
+                .timer()
+                .count());
+    }
+
+    @Test
+    public void ServiceMetricsAspect_Exception_RecordExceptionOutcome() {
+        Assertions.assertThrows(ProductNotFoundException.class, () -> sampleService.find(2L));
+
+        Assertions.assertEquals(1, meterRegistry.get(ServiceMetricsAspect.METRIC_NAME)
+                .tags("operation", "SampleService.find", "outcome", "ProductNotFoundException")
+                .timer()
+                .count());
+    }
+
+    @Service
+    static class SampleService {
+
+        public Long find(Long id) {
+            if (id != 1L) {
+                throw new ProductNotFoundException();
+            }
+            return id;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.frcalderon.products.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.support.RetryTemplate;
+
+import java.util.List;
+
+class StockRetryListenerTests {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private RetryTemplate retryTemplate;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        retryTemplate = RetryTemplate.builder()
+                .maxAttempts(3)
+                .noBackoff()
+                .retryOn(ConcurrencyFailureException.class)
+                .withListener(new StockRetryListener(meterRegistry))
+                .build();
+    }
+
+    @Test
+    public void StockRetryListener_ConflictThenSuccess_RecordConflictsPerIngredientAndRetries() {
+        retryTemplate.execute(context -> {
+            context.setAttribute(RetryContext.NAME, "IngredientService.consumeStockFromIngredient");
+            StockRetryListener.touch(List.of(1L, 2L));
+            if (context.getRetryCount() == 0) {
+                throw new CannotAcquireLockException("lock timeout");
+            }
+            return null;
+        });
+
+        Assertions.assertEquals(1, meterRegistry.get(StockRetryListener.CONFLICTS_METRIC_NAME).tag("ingredient", "1").counter().count());
+        Assertions.assertEquals(1, meterRegistry.get(StockRetryListener.CONFLICTS_METRIC_NAME).tag("ingredient", "2").counter().count());
+        Assertions.assertEquals(1, meterRegistry.get(StockRetryListener.RETRIES_METRIC_NAME)
+                .tags("operation", "IngredientService.consumeStockFromIngredient", "outcome", "success")
+                .summary()
+                .totalAmount());
+    }
+
+    @Test
+    public void StockRetryListener_OtherFailure_RecordNoConflict() {
+        Assertions.assertThrows(IllegalStateException.class, () -> retryTemplate.execute(context -> {
+            StockRetryListener.touch(List.of(1L));
+            throw new IllegalStateException("ingredient not found");
+        }));
+
+        Assertions.assertNull(meterRegistry.find(StockRetryListener.CONFLICTS_METRIC_NAME).counter());
+    }
+}
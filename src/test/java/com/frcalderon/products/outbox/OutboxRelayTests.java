@@ -0,0 +1,120 @@
+package com.frcalderon.products.outbox;
+
+import com.frcalderon.products.config.OutboxProperties;
+import com.frcalderon.products.model.AggregateType;
+import com.frcalderon.products.model.ChangeType;
+import com.frcalderon.products.model.OutboxEvent;
+import com.frcalderon.products.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+class OutboxRelayTests {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final InMemoryOutboxPublisher outboxPublisher = new InMemoryOutboxPublisher();
+
+    private OutboxRelay outboxRelay;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+
+        outboxRelay = new OutboxRelay(outboxEventRepository, outboxPublisher, transactionManager, meterRegistry, new OutboxProperties());
+        when(outboxEventRepository.tryLockRelay(OutboxRelay.RELAY_LOCK_KEY)).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    public void OutboxRelay_Relay_PublishLatestChangePerEntityAndDeleteBatch() {
+        List<OutboxEvent> events = List.of(
+                event(1L, AggregateType.PRODUCT, 10L, 0L, ChangeType.CREATED, "{\"price\":4.5}"),
+                event(2L, AggregateType.INGREDIENT, 20L, null, ChangeType.STOCK_CHANGED, "{\"stock\":9.0}"),
+                event(3L, AggregateType.PRODUCT, 10L, 1L, ChangeType.UPDATED, "{\"price\":5.0}"),
+                event(4L, AggregateType.INGREDIENT, 20L, null, ChangeType.STOCK_CHANGED, "{\"stock\":8.0}")
+        );
+        when(outboxEventRepository.lockBatch(500)).thenReturn(events);
+        when(outboxEventRepository.count()).thenReturn(0L);
+
+        outboxRelay.relay();
+
+        List<OutboxMessage> published = outboxPublisher.getPublished();
+        Assertions.assertEquals(2, published.size());
+        Assertions.assertEquals(3L, published.get(0).getEventId());
+        Assertions.assertEquals(ChangeType.CREATED, published.get(0).getChangeType());
+        Assertions.assertEquals("{\"price\":5.0}", published.get(0).getPayload());
+        Assertions.assertEquals(1L, published.get(0).getEntityVersion());
+        Assertions.assertEquals(4L, published.get(1).getEventId());
+        Assertions.assertEquals(1, published.get(1).getCoalesced());
+
+        verify(outboxEventRepository, times(1)).deleteAllInBatch(events);
+        Assertions.assertEquals(2, meterRegistry.get("sweetify.outbox.coalesced").counter().count());
+        Assertions.assertEquals(4, meterRegistry.get("sweetify.outbox.publish.latency").timer().count());
+    }
+
+    @Test
+    public void OutboxRelay_Relay_KeepEventsWhenPublishFails() {
+        OutboxPublisher failingPublisher = messages -> {
+            throw new IllegalStateException("broker down");
+        };
+        outboxRelay = new OutboxRelay(outboxEventRepository, failingPublisher, transactionManager, new SimpleMeterRegistry(), new OutboxProperties());
+        when(outboxEventRepository.lockBatch(500)).thenReturn(List.of(
+                event(1L, AggregateType.PRODUCT, 10L, null, ChangeType.DELETED, "{\"id\":10}")
+        ));
+
+        outboxRelay.relay();
+
+        verify(outboxEventRepository, times(0)).deleteAllInBatch(anyIterable());
+        verify(transactionManager, times(1)).rollback(any());
+    }
+
+    @Test
+    public void OutboxRelay_Relay_SkipWhenAnotherInstanceRelays() {
+        when(outboxEventRepository.tryLockRelay(OutboxRelay.RELAY_LOCK_KEY)).thenReturn(false);
+
+        outboxRelay.relay();
+
+        Assertions.assertTrue(outboxPublisher.getPublished().isEmpty());
+        verify(outboxEventRepository, times(0)).lockBatch(anyInt());
+        verify(outboxEventRepository, times(0)).deleteAllInBatch(anyIterable());
+    }
+
+    @Test
+    public void OutboxRelay_Relay_ReportBacklog() {
+        when(outboxEventRepository.lockBatch(500)).thenReturn(Collections.emptyList());
+        when(outboxEventRepository.count()).thenReturn(42L);
+
+        outboxRelay.relay();
+
+        Assertions.assertEquals(42L, outboxRelay.getBacklog());
+        Assertions.assertEquals(42.0, meterRegistry.get("sweetify.outbox.backlog").gauge().value());
+    }
+
+    private static OutboxEvent event(Long id, AggregateType aggregateType, Long aggregateId, Long entityVersion, ChangeType changeType, String payload) {
+        return new OutboxEvent(id, aggregateType, aggregateId, entityVersion, changeType, payload, Instant.now());
+    }
+}
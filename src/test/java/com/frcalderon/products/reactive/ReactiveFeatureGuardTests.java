@@ -0,0 +1,35 @@
+package com.frcalderon.products.reactive;
+
+import com.frcalderon.products.config.CatalogChangeProperties;
+import com.frcalderon.products.config.OutboxProperties;
+import com.frcalderon.products.config.StockMovementProperties;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class ReactiveFeatureGuardTests {
+
+    @Test
+    public void ReactiveFeatureGuard_FeaturesEnabled_RefuseToStart() {
+        OutboxProperties outboxProperties = new OutboxProperties();
+        outboxProperties.setEnabled(false);
+
+        IllegalStateException exception = Assertions.assertThrows(IllegalStateException.class,
+                () -> new ReactiveFeatureGuard(outboxProperties, new StockMovementProperties(), new CatalogChangeProperties()));
+
+        Assertions.assertFalse(exception.getMessage().contains("sweetify.outbox.enabled"));
+        Assertions.assertTrue(exception.getMessage().contains("sweetify.stock.movements.enabled"));
+        Assertions.assertTrue(exception.getMessage().contains("sweetify.changes.enabled"));
+    }
+
+    @Test
+    public void ReactiveFeatureGuard_FeaturesDisabled_Start() {
+        OutboxProperties outboxProperties = new OutboxProperties();
+        outboxProperties.setEnabled(false);
+        StockMovementProperties stockMovementProperties = new StockMovementProperties();
+        stockMovementProperties.setEnabled(false);
+        CatalogChangeProperties catalogChangeProperties = new CatalogChangeProperties();
+        catalogChangeProperties.setEnabled(false);
+
+        Assertions.assertDoesNotThrow(() -> new ReactiveFeatureGuard(outboxProperties, stockMovementProperties, catalogChangeProperties));
+    }
+}
@@ -0,0 +1,81 @@
+package com.frcalderon.products.reactive;
+
+import com.frcalderon.products.exceptions.IngredientHasProductsAssignedException;
+import com.frcalderon.products.exceptions.IngredientNotFoundException;
+import com.frcalderon.products.model.Ingredient;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.mockito.Mockito.*;
+
+class ReactiveIngredientServiceTests {
+
+    @Mock
+    private ReactiveIngredientRepository ingredientRepository;
+
+    @Mock
+    private ReactiveProductIngredientRepository productIngredientRepository;
+
+    @Mock
+    private R2dbcEntityTemplate entityTemplate;
+
+    @Mock
+    private ReactiveIdGenerator idGenerator;
+
+    @Mock
+    private ConnectionFactory connectionFactory;
+
+    private ReactiveIngredientService ingredientService;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        ingredientService = new ReactiveIngredientService(ingredientRepository, productIngredientRepository, entityTemplate, idGenerator, connectionFactory);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    public void ReactiveIngredientService_GetAll_ReturnSliceWithNext() {
+        when(ingredientRepository.findPage(0L, 3)).thenReturn(Flux.just(
+                new IngredientRow(1L, "Butter", "kg", 10.0, null, 0L),
+                new IngredientRow(2L, "Sugar", "kg", 5.0, null, 0L),
+                new IngredientRow(3L, "Flour", "kg", 8.0, null, 0L)
+        ));
+
+        Slice<Ingredient> result = ingredientService.getAllIngredients(0L, 2).block();
+
+        Assertions.assertEquals(2, result.getNumberOfElements());
+        Assertions.assertTrue(result.hasNext());
+    }
+
+    @Test
+    public void ReactiveIngredientService_Get_ReturnIngredientNotFoundException() {
+        when(ingredientRepository.findById(2L)).thenReturn(Mono.empty());
+
+        Assertions.assertThrows(IngredientNotFoundException.class, () -> ingredientService.getIngredient(2L).block());
+    }
+
+    @Test
+    public void ReactiveIngredientService_Delete_ReturnIngredientHasProductsAssignedException() {
+        when(ingredientRepository.existsById(1L)).thenReturn(Mono.just(true));
+        when(productIngredientRepository.existsByIngredientId(1L)).thenReturn(Mono.just(true));
+        when(ingredientRepository.deleteById(1L)).thenReturn(Mono.empty());
+
+        Assertions.assertThrows(IngredientHasProductsAssignedException.class, () -> ingredientService.deleteIngredient(1L).block());
+    }
+}
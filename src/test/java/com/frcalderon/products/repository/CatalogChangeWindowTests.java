@@ -0,0 +1,84 @@
+package com.frcalderon.products.repository;
+
+import com.frcalderon.products.model.Ingredient;
+import com.frcalderon.products.model.IngredientChange;
+import com.frcalderon.products.service.CatalogChangeService;
+import com.frcalderon.products.service.CatalogChanges;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+@Import(CatalogChangeService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class CatalogChangeWindowTests extends PostgresRepositoryTests {
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @Autowired
+    private CatalogChangeService catalogChangeService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        ingredientRepository.deleteAll();
+    }
+
+    @Test
+    public void CatalogChangeService_GetChanges_HoldBackChangesAboveInFlightLowerSequence() throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+
+        CompletableFuture<Void> slowWriter = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            ingredientRepository.saveAndFlush(ingredient("Butter"));
+            written.countDown();
+            await(commit);
+        }));
+        Assertions.assertThat(written.await(10, TimeUnit.SECONDS)).isTrue();
+
+        transactionTemplate.executeWithoutResult(status -> ingredientRepository.saveAndFlush(ingredient("Sugar")));
+
+        CatalogChanges whileInFlight = catalogChangeService.getChanges(0L, 100);
+
+        commit.countDown();
+        slowWriter.get(10, TimeUnit.SECONDS);
+
+        CatalogChanges afterCommit = catalogChangeService.getChanges(0L, 100);
+
+        Assertions.assertThat(whileInFlight.getIngredients()).isEmpty();
+        Assertions.assertThat(whileInFlight.getNextSince()).isEqualTo(0L);
+        Assertions.assertThat(afterCommit.getIngredients())
+                .extracting(IngredientChange::getName)
+                .containsExactly("Butter", "Sugar");
+        Assertions.assertThat(afterCommit.getNextSince()).isEqualTo(afterCommit.getIngredients().get(1).getChangeSeq());
+    }
+
+    private static Ingredient ingredient(String name) {
+        return Ingredient.builder()
+                .name(name)
+                .units("kg")
+                .stock(1.0)
+                .build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.frcalderon.products.repository;
+
+import com.frcalderon.products.model.Ingredient;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Optional;
+
+public class IngredientStockRepositoryTests extends PostgresRepositoryTests {
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @Test
+    public void IngredientRepository_AddStock_ReturnRowAsWritten() {
+        Ingredient ingredient = ingredientRepository.saveAndFlush(Ingredient.builder()
+                .name("Butter")
+                .units("kg")
+                .stock(2.0)
+                .build());
+        Long version = ingredient.getVersion();
+
+        Optional<Ingredient> updated = ingredientRepository.addStock(ingredient.getId(), 3.0);
+        Long changeSeq = updated.orElseThrow().getChangeSeq();
+        Optional<Ingredient> updatedAgain = ingredientRepository.addStock(ingredient.getId(), 0.0);
+
+        Assertions.assertThat(updated.get().getStock()).isEqualTo(5.0);
+        Assertions.assertThat(updated.get().getVersion()).isEqualTo(version + 1);
+        Assertions.assertThat(changeSeq).isNotNull();
+        Assertions.assertThat(updatedAgain.orElseThrow().getChangeSeq()).isGreaterThan(changeSeq);
+        Assertions.assertThat(ingredientRepository.findById(ingredient.getId()).get().getStock()).isEqualTo(5.0);
+    }
+
+    @Test
+    public void IngredientRepository_AddStock_TreatMissingStockAsZero() {
+        Ingredient ingredient = ingredientRepository.saveAndFlush(Ingredient.builder()
+                .name("Sugar")
+                .units("kg")
+                .build());
+
+        Optional<Ingredient> updated = ingredientRepository.addStock(ingredient.getId(), 1.5);
+
+        Assertions.assertThat(updated).isPresent();
+        Assertions.assertThat(updated.get().getStock()).isEqualTo(1.5);
+    }
+
+    @Test
+    public void IngredientRepository_AddStock_ReturnEmptyForMissingIngredient() {
+        Optional<Ingredient> updated = ingredientRepository.addStock(999L, 1.5);
+
+        Assertions.assertThat(updated).isEmpty();
+    }
+}
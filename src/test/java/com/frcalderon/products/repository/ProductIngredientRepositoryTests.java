@@ -3,6 +3,7 @@ package com.frcalderon.products.repository;
 import com.frcalderon.products.model.Ingredient;
 import com.frcalderon.products.model.Product;
 import com.frcalderon.products.model.ProductIngredient;
+import com.frcalderon.products.model.RecipeLine;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -110,6 +111,40 @@ public class ProductIngredientRepositoryTests {
         Assertions.assertThat(productIngredientList.size()).isEqualTo(2);
     }
 
+    @Test
+    public void ProductIngredientRepository_ExistsByIngredient_ReturnUsages() {
+        Ingredient ingredient = Ingredient.builder()
+                .name("Butter")
+                .units("kg")
+                .stock(2.0)
+                .build();
+
+        Ingredient unusedIngredient = Ingredient.builder()
+                .name("Sugar")
+                .units("kg")
+                .stock(1.0)
+                .build();
+
+        Product product = Product.builder()
+                .name("Lotus cheesecake")
+                .description("Handmade Lotus cheesecake")
+                .price(4.5)
+                .build();
+
+        ingredientRepository.save(ingredient);
+        ingredientRepository.save(unusedIngredient);
+        productRepository.save(product);
+
+        productIngredientRepository.save(ProductIngredient.builder()
+                .product(product)
+                .ingredient(ingredient)
+                .quantity(0.5)
+                .build());
+
+        Assertions.assertThat(productIngredientRepository.existsByIngredientId(ingredient.getId())).isTrue();
+        Assertions.assertThat(productIngredientRepository.existsByIngredientId(unusedIngredient.getId())).isFalse();
+    }
+
     @Test
     public void ProductIngredientRepository_GetByProduct_ReturnMoreThanOneProductIngredient() {
         Ingredient ingredient1 = Ingredient.builder()
@@ -162,6 +197,61 @@ public class ProductIngredientRepositoryTests {
         Assertions.assertThat(productIngredientList.size()).isEqualTo(2);
     }
 
+    @Test
+    public void ProductIngredientRepository_FindRecipeLinesByProducts_ReturnRecipeLines() {
+        Ingredient ingredient1 = Ingredient.builder()
+                .name("Butter")
+                .units("kg")
+                .stock(2.0)
+                .build();
+
+        Ingredient ingredient2 = Ingredient.builder()
+                .name("Chocolate")
+                .units("kg")
+                .stock(3.0)
+                .build();
+
+        Product product1 = Product.builder()
+                .name("Lotus cheesecake")
+                .description("Handmade lotus cheesecake")
+                .price(4.5)
+                .build();
+
+        Product product2 = Product.builder()
+                .name("Oreo cheesecake")
+                .description("Handmade oreo cheesecake")
+                .price(4.5)
+                .build();
+
+        ingredientRepository.save(ingredient1);
+        ingredientRepository.save(ingredient2);
+        productRepository.save(product1);
+        productRepository.save(product2);
+
+        productIngredientRepository.save(ProductIngredient.builder()
+                .product(product1)
+                .ingredient(ingredient1)
+                .quantity(0.5)
+                .build());
+        productIngredientRepository.save(ProductIngredient.builder()
+                .product(product1)
+                .ingredient(ingredient2)
+                .quantity(0.25)
+                .build());
+        productIngredientRepository.save(ProductIngredient.builder()
+                .product(product2)
+                .ingredient(ingredient2)
+                .quantity(1.0)
+                .build());
+
+        List<RecipeLine> recipeLines = productIngredientRepository.findRecipeLinesByProductIdIn(List.of(product1.getId()));
+
+        Assertions.assertThat(recipeLines.size()).isEqualTo(2);
+        Assertions.assertThat(recipeLines).allMatch(recipeLine -> recipeLine.getProductId().equals(product1.getId()));
+        Assertions.assertThat(recipeLines).extracting(RecipeLine::getIngredientId)
+                .containsExactlyInAnyOrder(ingredient1.getId(), ingredient2.getId());
+    }
+
     @Test
     public void ProductIngredientRepository_Delete_ReturnProductIngredientIsEmpty_ProductAndIngredientAreNotRemoved() {
         Ingredient ingredient = Ingredient.builder()
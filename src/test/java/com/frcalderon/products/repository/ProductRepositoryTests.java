@@ -1,23 +1,43 @@
 package com.frcalderon.products.repository;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.frcalderon.products.controller.dto.ProductResponse;
+import com.frcalderon.products.model.Ingredient;
 import com.frcalderon.products.model.Product;
+import com.frcalderon.products.model.ProductIngredient;
 import org.assertj.core.api.Assertions;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 @AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
 public class ProductRepositoryTests {
 
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @Autowired
+    private ProductIngredientRepository productIngredientRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
     @Test
     public void ProductRepository_GetAll_ReturnMoreThanOneProduct() {
         Product product1 = Product.builder()
@@ -41,6 +61,41 @@ public class ProductRepositoryTests {
         Assertions.assertThat(productList.size()).isEqualTo(2);
     }
 
+    @Test
+    public void ProductRepository_FindIdsByIdGreaterThan_ReturnProductIdsAfterCursor() {
+        Product product1 = Product.builder()
+                .name("Lotus cheesecake")
+                .description("Handmade lotus cheesecake")
+                .price(4.5)
+                .build();
+
+        Product product2 = Product.builder()
+                .name("Oreo cheesecake")
+                .description("Handmade oreo cheesecake")
+                .price(4.5)
+                .build();
+
+        Product product3 = Product.builder()
+                .name("Carrot cake")
+                .description("Handmade carrot cake")
+                .price(3.5)
+                .build();
+
+        productRepository.save(product1);
+        productRepository.save(product2);
+        productRepository.save(product3);
+
+        Slice<Long> firstPage = productRepository.findIdsByIdGreaterThan(0L, PageRequest.of(0, 2, Sort.by("id")));
+
+        Assertions.assertThat(firstPage.getContent()).containsExactly(product1.getId(), product2.getId());
+        Assertions.assertThat(firstPage.hasNext()).isTrue();
+
+        Slice<Long> secondPage = productRepository.findIdsByIdGreaterThan(product2.getId(), PageRequest.of(0, 2, Sort.by("id")));
+
+        Assertions.assertThat(secondPage.getContent()).containsExactly(product3.getId());
+        Assertions.assertThat(secondPage.hasNext()).isFalse();
+    }
+
     @Test
     public void ProductRepository_FindById_ReturnProduct() {
         Product product = Product.builder()
@@ -108,4 +163,93 @@ public class ProductRepositoryTests {
 
         Assertions.assertThat(deletedProduct).isEmpty();
     }
+
+    @Test
+    public void ProductRepository_ListPageWithIngredients_RenderHundredProductsWithTwoQueries() throws Exception {
+        saveProductsWithIngredients(100);
+
+        Statistics statistics = getStatistics();
+        statistics.clear();
+
+        Slice<Long> productIds = productRepository.findIdsByIdGreaterThan(0L, PageRequest.of(0, 100, Sort.by("id")));
+        List<Product> productList = productRepository.findAllWithIngredientsByIdIn(productIds.getContent());
+        String json = new ObjectMapper().writeValueAsString(productList.stream().map(ProductResponse::new).toList());
+
+        Assertions.assertThat(productList.size()).isEqualTo(100);
+        Assertions.assertThat(json).contains("Butter");
+        Assertions.assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void ProductRepository_StreamAllWithIngredients_ReturnEveryProductOnceWithIngredients() {
+        saveProductsWithIngredients(10);
+
+        try (Stream<Product> products = productRepository.streamAllWithIngredients()) {
+            List<Product> productList = products.toList();
+
+            Assertions.assertThat(productList.size()).isEqualTo(10);
+            Assertions.assertThat(productList).allMatch(product -> product.getIngredients().size() == 2);
+        }
+    }
+
+    @Test
+    public void ProductRepository_FindByIdWithIngredients_ReturnProductWithIngredients() {
+        saveProductsWithIngredients(1);
+
+        Long productId = productRepository.findAll().get(0).getId();
+        entityManager.clear();
+
+        Statistics statistics = getStatistics();
+        statistics.clear();
+
+        Product foundProduct = productRepository.findByIdWithIngredients(productId).get();
+
+        Assertions.assertThat(foundProduct.getIngredients().size()).isEqualTo(2);
+        Assertions.assertThat(foundProduct.getIngredients().get(0).getIngredient().getName()).isNotBlank();
+        Assertions.assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    private void saveProductsWithIngredients(int count) {
+        Ingredient butter = ingredientRepository.save(Ingredient.builder()
+                .name("Butter")
+                .units("kg")
+                .stock(2.0)
+                .build());
+
+        Ingredient chocolate = ingredientRepository.save(Ingredient.builder()
+                .name("Chocolate")
+                .units("kg")
+                .stock(3.0)
+                .build());
+
+        for (int i = 0; i < count; i++) {
+            Product product = productRepository.save(Product.builder()
+                    .name("Cheesecake " + i)
+                    .description("Handmade cheesecake")
+                    .price(4.5)
+                    .build());
+
+            productIngredientRepository.save(ProductIngredient.builder()
+                    .product(product)
+                    .ingredient(butter)
+                    .quantity(0.5)
+                    .build());
+
+            productIngredientRepository.save(ProductIngredient.builder()
+                    .product(product)
+                    .ingredient(chocolate)
+                    .quantity(0.25)
+                    .build());
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Statistics getStatistics() {
+        return entityManager.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+    }
 }
@@ -0,0 +1,78 @@
+package com.frcalderon.products.service;
+
+import com.frcalderon.products.model.IngredientStock;
+import com.frcalderon.products.repository.IngredientRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.*;
+
+class AvailabilityServiceTests {
+
+    @Mock
+    private RecipeIndex recipeIndex;
+
+    @Mock
+    private IngredientRepository ingredientRepository;
+
+    @Mock
+    private StockLedger stockLedger;
+
+    @InjectMocks
+    private AvailabilityService availabilityService;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+
+        when(ingredientRepository.findAllStock()).thenReturn(List.of(
+                new IngredientStock(11L, 3.0),
+                new IngredientStock(10L, 5.5)
+        ));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    public void AvailabilityService_GetAvailability_ReturnMinimumUnitsOverRecipe() {
+        when(recipeIndex.getAllRecipes()).thenReturn(Map.of(
+                1L, new Recipe(new long[]{10L, 11L}, new double[]{0.5, 2.0}),
+                2L, new Recipe(new long[]{10L, 12L}, new double[]{1.0, 1.0}),
+                3L, Recipe.EMPTY
+        ));
+
+        List<ProductAvailability> result = availabilityService.getAvailability(null);
+
+        Assertions.assertEquals(List.of(
+                new ProductAvailability(1L, 1L),
+                new ProductAvailability(2L, 0L),
+                new ProductAvailability(3L, null)
+        ), result);
+    }
+
+    @Test
+    public void AvailabilityService_GetAvailability_UsePendingLedgerStock() {
+        when(recipeIndex.getRecipes(List.of(1L))).thenReturn(Map.of(
+                1L, new Recipe(new long[]{10L, 11L}, new double[]{0.5, 2.0})
+        ));
+        when(stockLedger.isEnabled()).thenReturn(true);
+        when(stockLedger.getStock(11L)).thenReturn(9.0);
+
+        List<ProductAvailability> result = availabilityService.getAvailability(List.of(1L));
+
+        Assertions.assertEquals(List.of(new ProductAvailability(1L, 4L)), result);
+    }
+}
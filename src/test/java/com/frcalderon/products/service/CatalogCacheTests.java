@@ -0,0 +1,120 @@
+package com.frcalderon.products.service;
+
+import com.frcalderon.products.config.CatalogCacheProperties;
+import com.frcalderon.products.model.Ingredient;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class CatalogCacheTests {
+
+    private ConcurrentMapCacheManager cacheManager;
+
+    private CatalogCacheProperties catalogCacheProperties;
+
+    private CatalogCache catalogCache;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager(CatalogCache.INGREDIENTS);
+        catalogCacheProperties = new CatalogCacheProperties();
+        catalogCache = new CatalogCache(cacheManager, catalogCacheProperties);
+    }
+
+    @Test
+    public void CatalogCache_EvictIngredients_OnlyRemoveGivenIngredients() {
+        Cache ingredients = cacheManager.getCache(CatalogCache.INGREDIENTS);
+        ingredients.put(1L, "Butter");
+        ingredients.put(2L, "Chocolate");
+        ingredients.put(3L, "Sugar");
+
+        catalogCache.evictIngredients(List.of(1L, 3L));
+
+        Assertions.assertNull(ingredients.get(1L));
+        Assertions.assertNotNull(ingredients.get(2L));
+        Assertions.assertNull(ingredients.get(3L));
+    }
+
+    @Test
+    public void CatalogCache_EvictIngredients_WaitForCommit() {
+        Cache ingredients = cacheManager.getCache(CatalogCache.INGREDIENTS);
+        ingredients.put(1L, "Butter");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            catalogCache.evictIngredients(List.of(1L));
+            Assertions.assertNotNull(ingredients.get(1L));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        Assertions.assertNull(ingredients.get(1L));
+    }
+
+    @Test
+    public void CatalogCache_GetIngredient_ReturnCopyOfCachedSnapshot() {
+        AtomicInteger loads = new AtomicInteger();
+        Ingredient butter = Ingredient.builder().id(1L).version(3L).name("Butter").units("kg").stock(10.0).build();
+
+        Ingredient first = catalogCache.getIngredient(1L, () -> {
+            loads.incrementAndGet();
+            return butter;
+        });
+        first.setStock(0.0);
+        butter.setName("Margarine");
+
+        Ingredient second = catalogCache.getIngredient(1L, () -> {
+            loads.incrementAndGet();
+            return butter;
+        });
+
+        Assertions.assertEquals(1, loads.get());
+        Assertions.assertEquals(10.0, second.getStock());
+        Assertions.assertEquals("Butter", second.getName());
+        Assertions.assertEquals(3L, second.getVersion());
+    }
+
+    @Test
+    public void CatalogCache_GetIngredient_DoNotCacheLoadRacingEviction() {
+        AtomicInteger loads = new AtomicInteger();
+
+        catalogCache.getIngredient(1L, () -> {
+            loads.incrementAndGet();
+            catalogCache.evictIngredient(1L);
+            return Ingredient.builder().id(1L).version(3L).build();
+        });
+        catalogCache.getIngredient(1L, () -> {
+            loads.incrementAndGet();
+            return Ingredient.builder().id(1L).version(4L).build();
+        });
+
+        Assertions.assertEquals(2, loads.get());
+        Assertions.assertEquals(4L, catalogCache.getIngredient(1L, Ingredient::new).getVersion());
+    }
+
+    @Test
+    public void CatalogCache_GetIngredient_LoadEveryTimeWhenDisabled() {
+        AtomicInteger loads = new AtomicInteger();
+        catalogCacheProperties.setIngredients(false);
+
+        catalogCache.getIngredient(1L, () -> {
+            loads.incrementAndGet();
+            return Ingredient.builder().id(1L).build();
+        });
+        catalogCache.getIngredient(1L, () -> {
+            loads.incrementAndGet();
+            return Ingredient.builder().id(1L).build();
+        });
+
+        Assertions.assertEquals(2, loads.get());
+    }
+}
@@ -0,0 +1,131 @@
+package com.frcalderon.products.service;
+
+import com.frcalderon.products.config.CatalogChangeProperties;
+import com.frcalderon.products.model.CatalogChangeWindow;
+import com.frcalderon.products.model.CatalogEntityType;
+import com.frcalderon.products.model.CatalogTombstone;
+import com.frcalderon.products.model.IngredientChange;
+import com.frcalderon.products.model.ProductChange;
+import com.frcalderon.products.model.ProductIngredientChange;
+import com.frcalderon.products.repository.CatalogTombstoneRepository;
+import com.frcalderon.products.repository.IngredientRepository;
+import com.frcalderon.products.repository.ProductIngredientRepository;
+import com.frcalderon.products.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+class CatalogChangeServiceTests {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private IngredientRepository ingredientRepository;
+
+    @Mock
+    private ProductIngredientRepository productIngredientRepository;
+
+    @Mock
+    private CatalogTombstoneRepository catalogTombstoneRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private CatalogChangeProperties catalogChangeProperties = new CatalogChangeProperties();
+
+    @InjectMocks
+    private CatalogChangeService catalogChangeService;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        when(catalogTombstoneRepository.findLastChangeSeq()).thenReturn(20L);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    public void CatalogChangeService_GetChanges_ReturnLowestSequencesAcrossTables() {
+        when(productRepository.findChanges(eq(10L), anyLong(), any(Pageable.class))).thenReturn(List.of(
+                new ProductChange(11L, 1L, "Lotus cheesecake", "Handmade Lotus cheesecake", 4.5),
+                new ProductChange(15L, 2L, "Oreo cheesecake", "Handmade Oreo cheesecake", 4.0)
+        ));
+        when(ingredientRepository.findChanges(eq(10L), anyLong(), any(Pageable.class))).thenReturn(List.of(
+                new IngredientChange(12L, 1L, "Butter", "kg", 2.0, null)
+        ));
+        when(productIngredientRepository.findChanges(eq(10L), anyLong(), any(Pageable.class))).thenReturn(List.of(
+                new ProductIngredientChange(13L, 7L, 1L, 1L, 0.5),
+                new ProductIngredientChange(16L, 8L, 2L, 1L, 0.25)
+        ));
+        when(catalogTombstoneRepository.findChanges(eq(10L), anyLong(), any(Pageable.class))).thenReturn(List.of(
+                new CatalogTombstone(14L, CatalogEntityType.PRODUCT_INGREDIENT, 6L, Instant.now())
+        ));
+
+        CatalogChanges result = catalogChangeService.getChanges(10L, 3);
+
+        Assertions.assertEquals(List.of(11L), result.getProducts().stream().map(ProductChange::getChangeSeq).toList());
+        Assertions.assertEquals(1, result.getIngredients().size());
+        Assertions.assertEquals(List.of(13L), result.getProductIngredients().stream().map(ProductIngredientChange::getChangeSeq).toList());
+        Assertions.assertTrue(result.getDeleted().isEmpty());
+        Assertions.assertEquals(13L, result.getNextSince());
+        Assertions.assertTrue(result.isHasMore());
+
+        ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+        verify(productRepository).findChanges(eq(10L), eq(21L), pageable.capture());
+        Assertions.assertEquals(4, pageable.getValue().getPageSize());
+    }
+
+    @Test
+    public void CatalogChangeService_GetChanges_KeepCursorWhenNothingChanged() {
+        CatalogChanges result = catalogChangeService.getChanges(42L, 100);
+
+        Assertions.assertTrue(result.getProducts().isEmpty());
+        Assertions.assertTrue(result.getDeleted().isEmpty());
+        Assertions.assertEquals(42L, result.getNextSince());
+        Assertions.assertFalse(result.isHasMore());
+    }
+
+    @Test
+    public void CatalogChangeService_GetChanges_StopBelowOldestOpenWindow() {
+        when(catalogTombstoneRepository.findOldestOpenWindow(CatalogChangeWindow.NAMESPACE)).thenReturn(12L);
+
+        catalogChangeService.getChanges(0L, 100);
+
+        verify(productRepository).findChanges(eq(0L), eq(12L), any(Pageable.class));
+        verify(ingredientRepository).findChanges(eq(0L), eq(12L), any(Pageable.class));
+        verify(productIngredientRepository).findChanges(eq(0L), eq(12L), any(Pageable.class));
+        verify(catalogTombstoneRepository).findChanges(eq(0L), eq(12L), any(Pageable.class));
+    }
+
+    @Test
+    public void CatalogChangeService_Backfill_StampOnlyTablesWithUnstampedRows() {
+        when(productRepository.existsByChangeSeqIsNull()).thenReturn(true);
+        when(productRepository.backfillChangeSeq()).thenReturn(3);
+
+        catalogChangeService.backfill();
+
+        verify(productRepository, times(1)).backfillChangeSeq();
+        verify(ingredientRepository, times(0)).backfillChangeSeq();
+        verify(productIngredientRepository, times(0)).backfillChangeSeq();
+    }
+}
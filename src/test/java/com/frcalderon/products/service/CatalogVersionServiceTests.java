@@ -0,0 +1,113 @@
+package com.frcalderon.products.service;
+
+import com.frcalderon.products.model.Ingredient;
+import com.frcalderon.products.model.Product;
+import com.frcalderon.products.model.ProductIngredient;
+import com.frcalderon.products.repository.IngredientRepository;
+import com.frcalderon.products.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.Mockito.*;
+
+class CatalogVersionServiceTests {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private IngredientRepository ingredientRepository;
+
+    @Mock
+    private StockLedger stockLedger;
+
+    @InjectMocks
+    private CatalogVersionService catalogVersionService;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    public void CatalogVersionService_GetProductsETag_DigestPage() {
+        when(productRepository.findPageDigest(0L, 100)).thenReturn("abc");
+
+        String result = catalogVersionService.getProductsETag(0L, 100);
+
+        Assertions.assertEquals("\"products-0-100-abc\"", result);
+    }
+
+    @Test
+    public void CatalogVersionService_GetProductsETagOfLoadedPage_MatchDatabaseDigest() {
+        Product product = Product.builder().id(1L).version(2L).ingredients(List.of()).build();
+
+        String result = catalogVersionService.getProductsETag(0L, 1, new SliceImpl<>(List.of(product), PageRequest.of(0, 1), true));
+
+        Assertions.assertEquals("\"products-0-1-b8d02ba807ddb436a9fb33b6313c4b63-next\"", result);
+    }
+
+    @Test
+    public void CatalogVersionService_GetProductETag_ReturnNullWhenProductNotFound() {
+        when(productRepository.findDigestById(1L)).thenReturn(Optional.empty());
+
+        Assertions.assertNull(catalogVersionService.getProductETag(1L));
+    }
+
+    @Test
+    public void CatalogVersionService_GetProductETagOfLoadedProduct_MatchDatabaseDigest() {
+        Product product = Product.builder().id(1L).version(2L).ingredients(List.of()).build();
+
+        Assertions.assertEquals("\"product-1-b8d02ba807ddb436a9fb33b6313c4b63\"", catalogVersionService.getProductETag(product));
+    }
+
+    @Test
+    public void CatalogVersionService_GetProductETagOfLoadedProduct_DigestLinesInIdOrder() {
+        Product product = Product.builder().id(1L).version(2L).build();
+        product.setIngredients(List.of(
+                ProductIngredient.builder().id(9L).ingredient(Ingredient.builder().id(4L).build()).build(),
+                ProductIngredient.builder().id(5L).ingredient(Ingredient.builder().id(3L).version(7L).build()).build()
+        ));
+
+        Assertions.assertEquals("\"product-1-1ad05b18e47dbd0b38c8e8a285b90be9\"", catalogVersionService.getProductETag(product));
+    }
+
+    @Test
+    public void CatalogVersionService_GetIngredientETag_ReturnVersion() {
+        when(ingredientRepository.findVersionById(1L)).thenReturn(Optional.of(3L));
+
+        Assertions.assertEquals("\"ingredient-1-3\"", catalogVersionService.getIngredientETag(1L));
+    }
+
+    @Test
+    public void CatalogVersionService_GetIngredientETag_ReturnNullWhileLedgerEnabled() {
+        when(stockLedger.isEnabled()).thenReturn(true);
+
+        Assertions.assertNull(catalogVersionService.getIngredientETag(1L));
+        verify(ingredientRepository, times(0)).findVersionById(1L);
+    }
+
+    @Test
+    public void CatalogVersionService_GetIngredientETagOfLoadedIngredient_ReturnVersion() {
+        Ingredient ingredient = Ingredient.builder().id(1L).version(3L).build();
+
+        Assertions.assertEquals("\"ingredient-1-3\"", catalogVersionService.getIngredientETag(ingredient));
+    }
+}
@@ -0,0 +1,92 @@
+package com.frcalderon.products.service;
+
+import com.frcalderon.products.config.IdempotencyProperties;
+import com.frcalderon.products.repository.IdempotencyRecordRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.exception.JDBCConnectionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.mockito.Mockito.*;
+
+class IdempotencyServiceTests {
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private IdempotencyService idempotencyService;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        idempotencyService = new IdempotencyService(idempotencyRecordRepository, entityManager, transactionManager, new IdempotencyProperties());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    public void IdempotencyService_Reserve_ReturnTrueForNewKey() {
+        Assertions.assertTrue(idempotencyService.reserve("key-1", "fingerprint"));
+
+        verify(entityManager, times(1)).persist(any());
+        verify(entityManager, times(1)).flush();
+    }
+
+    @Test
+    public void IdempotencyService_Reserve_ReturnFalseForDuplicateKey() {
+        doThrow(new ConstraintViolationException("duplicate key", new SQLException("duplicate key", "23505"), "idempotency_record_pkey"))
+                .when(entityManager).flush();
+
+        Assertions.assertFalse(idempotencyService.reserve("key-1", "fingerprint"));
+    }
+
+    @Test
+    public void IdempotencyService_Reserve_ReplaceExpiredKey() {
+        doThrow(new ConstraintViolationException("duplicate key", new SQLException("duplicate key", "23505"), "idempotency_record_pkey"))
+                .doNothing()
+                .when(entityManager).flush();
+        when(idempotencyRecordRepository.deleteByIdempotencyKeyAndCreatedAtBefore(eq("key-1"), any(Instant.class))).thenReturn(1);
+
+        Assertions.assertTrue(idempotencyService.reserve("key-1", "fingerprint"));
+
+        verify(entityManager, times(2)).persist(any());
+    }
+
+    @Test
+    public void IdempotencyService_Find_IgnoreExpiredRecord() {
+        when(idempotencyRecordRepository.findByIdempotencyKeyAndCreatedAtAfter(eq("key-1"), any(Instant.class))).thenReturn(Optional.empty());
+
+        Assertions.assertTrue(idempotencyService.find("key-1").isEmpty());
+
+        verify(idempotencyRecordRepository, never()).findById(anyString());
+    }
+
+    @Test
+    public void IdempotencyService_Reserve_ThrowOtherFailures() {
+        doThrow(new JDBCConnectionException("connection lost", new SQLException("connection lost", "08006")))
+                .when(entityManager).flush();
+
+        Assertions.assertThrows(JDBCConnectionException.class, () -> idempotencyService.reserve("key-1", "fingerprint"));
+    }
+}
@@ -4,11 +4,19 @@ import com.frcalderon.products.controller.dto.IngredientRequest;
 import com.frcalderon.products.controller.dto.IngredientStockRequest;
 import com.frcalderon.products.exceptions.IngredientHasProductsAssignedException;
 import com.frcalderon.products.exceptions.IngredientNotFoundException;
+import com.frcalderon.products.metrics.StockMetrics;
+import com.frcalderon.products.model.CatalogEntityType;
 import com.frcalderon.products.model.Ingredient;
+import com.frcalderon.products.model.IngredientUsage;
 import com.frcalderon.products.model.Product;
 import com.frcalderon.products.model.ProductIngredient;
+import com.frcalderon.products.outbox.OutboxWriter;
 import com.frcalderon.products.repository.IngredientRepository;
 import com.frcalderon.products.repository.ProductIngredientRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Path;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,21 +24,59 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
 import static org.mockito.Mockito.*;
 
 class IngredientServiceTests {
 
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @Mock
     private IngredientRepository ingredientRepository;
 
     @Mock
     private ProductIngredientRepository productIngredientRepository;
 
+    @Mock
+    private CatalogCache catalogCache;
+
+    @Mock
+    private StockLedger stockLedger;
+
+    @Mock
+    private Validator validator;
+
+    @Spy
+    private StockMetrics stockMetrics = new StockMetrics(meterRegistry);
+
+    @Mock
+    private LowStockIndex lowStockIndex;
+
+    @Mock
+    private StockMovementRecorder stockMovementRecorder;
+
+    @Mock
+    private OutboxWriter outboxWriter;
+
+    @Mock
+    private RecipeIndex recipeIndex;
+
+    @Mock
+    private CatalogChangeService catalogChangeService;
+
     @InjectMocks
     private IngredientService ingredientService;
 
@@ -60,6 +106,8 @@ class IngredientServiceTests {
         ingredientList = new ArrayList<>();
         ingredientList.add(ingredient);
 
+        when(catalogCache.getIngredient(anyLong(), any())).thenAnswer(invocation -> invocation.<Supplier<Ingredient>>getArgument(1).get());
+
         product = Product.builder()
                 .name("Lotus cheesecake")
                 .description("Handmade Lotus cheesecake")
@@ -82,15 +130,15 @@ class IngredientServiceTests {
     }
 
     @Test
-    public void IngredientService_GetAll_ReturnIngredientList() {
-        when(ingredientRepository.findAll()).thenReturn(ingredientList);
+    public void IngredientService_GetAll_ReturnIngredientSlice() {
+        when(ingredientRepository.findByIdGreaterThan(eq(0L), any(Pageable.class))).thenReturn(new SliceImpl<>(ingredientList));
 
-        List<Ingredient> result = ingredientService.getAllIngredients();
+        Slice<Ingredient> result = ingredientService.getAllIngredients(0L, 100);
 
-        Assertions.assertEquals(1, result.size());
-        Assertions.assertEquals(ingredient, result.get(0));
+        Assertions.assertEquals(1, result.getNumberOfElements());
+        Assertions.assertEquals(ingredient, result.getContent().get(0));
 
-        verify(ingredientRepository, times(1)).findAll();
+        verify(ingredientRepository, times(1)).findByIdGreaterThan(0L, PageRequest.of(0, 100, Sort.by("id")));
     }
 
     @Test
@@ -154,7 +202,7 @@ class IngredientServiceTests {
                 .build();
 
         when(ingredientRepository.findById(1L)).thenReturn(Optional.of(ingredient));
-        when(ingredientRepository.save(any(Ingredient.class))).thenReturn(updatedIngredient);
+        when(ingredientRepository.saveAndFlush(any(Ingredient.class))).thenReturn(updatedIngredient);
 
         Ingredient result = ingredientService.updateIngredient(1L, request);
 
@@ -164,7 +212,7 @@ class IngredientServiceTests {
         Assertions.assertEquals(20.0, result.getStock());
 
         verify(ingredientRepository, times(1)).findById(1L);
-        verify(ingredientRepository, times(1)).save(any(Ingredient.class));
+        verify(ingredientRepository, times(1)).saveAndFlush(any(Ingredient.class));
     }
 
     @Test
@@ -190,6 +238,7 @@ class IngredientServiceTests {
 
         verify(ingredientRepository, times(1)).existsById(1L);
         verify(ingredientRepository, times(1)).deleteById(1L);
+        verify(catalogChangeService, times(1)).recordDeleted(CatalogEntityType.INGREDIENT, 1L);
     }
 
     @Test
@@ -205,15 +254,36 @@ class IngredientServiceTests {
     @Test
     public void IngredientService_Delete_ReturnIngredientHasProductsAssignedException() {
         when(ingredientRepository.existsById(1L)).thenReturn(true);
-        when(productIngredientRepository.findAllByIngredientId(1L)).thenReturn(productIngredientList);
+        when(productIngredientRepository.existsByIngredientId(1L)).thenReturn(true);
 
         Assertions.assertThrows(IngredientHasProductsAssignedException.class, () -> ingredientService.deleteIngredient(1L));
 
         verify(ingredientRepository, times(1)).existsById(1L);
-        verify(productIngredientRepository, times(1)).findAllByIngredientId(1L);
+        verify(productIngredientRepository, times(1)).existsByIngredientId(1L);
+        verify(productIngredientRepository, times(0)).findAllByIngredientId(1L);
         verify(ingredientRepository, times(0)).deleteById(1L);
     }
 
+    @Test
+    public void IngredientService_GetUsages_ReturnUsagesFromRecipeIndex() {
+        List<IngredientUsage> usages = List.of(new IngredientUsage(1L, 0.5), new IngredientUsage(2L, 0.25));
+        when(ingredientRepository.existsById(1L)).thenReturn(true);
+        when(recipeIndex.getUsages(1L)).thenReturn(usages);
+
+        Assertions.assertEquals(usages, ingredientService.getIngredientUsages(1L));
+
+        verify(productIngredientRepository, times(0)).findAllByIngredientId(1L);
+    }
+
+    @Test
+    public void IngredientService_GetUsages_ReturnIngredientNotFoundException() {
+        when(ingredientRepository.existsById(2L)).thenReturn(false);
+
+        Assertions.assertThrows(IngredientNotFoundException.class, () -> ingredientService.getIngredientUsages(2L));
+
+        verify(recipeIndex, times(0)).getUsages(2L);
+    }
+
     @Test
     public void IngredientService_AddStock_ReturnIngredient() {
         IngredientStockRequest request = IngredientStockRequest.builder()
@@ -227,8 +297,7 @@ class IngredientServiceTests {
                 .stock(ingredient.getStock() + request.getStock())
                 .build();
 
-        when(ingredientRepository.findById(1L)).thenReturn(Optional.of(ingredient));
-        when(ingredientRepository.save(any(Ingredient.class))).thenReturn(updatedIngredient);
+        when(ingredientRepository.addStock(1L, 20.0)).thenReturn(Optional.of(updatedIngredient));
 
         Ingredient result = ingredientService.addStockToIngredient(request);
 
@@ -237,8 +306,23 @@ class IngredientServiceTests {
         Assertions.assertEquals("kg", result.getUnits());
         Assertions.assertEquals(30.0, result.getStock());
 
-        verify(ingredientRepository, times(1)).findById(1L);
-        verify(ingredientRepository, times(1)).save(any(Ingredient.class));
+        verify(ingredientRepository, times(1)).addStock(1L, 20.0);
+        verify(ingredientRepository, times(0)).findById(1L);
+        verify(ingredientRepository, times(0)).save(any(Ingredient.class));
+    }
+
+    @Test
+    public void IngredientService_AddStock_ReturnIngredientNotFoundException() {
+        IngredientStockRequest request = IngredientStockRequest.builder()
+                .ingredientId(2L)
+                .stock(20.0)
+                .build();
+
+        when(ingredientRepository.addStock(2L, 20.0)).thenReturn(Optional.empty());
+
+        Assertions.assertThrows(IngredientNotFoundException.class, () -> ingredientService.addStockToIngredient(request));
+
+        verify(ingredientRepository, times(1)).addStock(2L, 20.0);
     }
 
     @Test
@@ -254,8 +338,7 @@ class IngredientServiceTests {
                 .stock(ingredient.getStock() - request.getStock())
                 .build();
 
-        when(ingredientRepository.findById(1L)).thenReturn(Optional.of(ingredient));
-        when(ingredientRepository.save(any(Ingredient.class))).thenReturn(updatedIngredient);
+        when(ingredientRepository.addStock(1L, -5.0)).thenReturn(Optional.of(updatedIngredient));
 
         Ingredient result = ingredientService.consumeStockFromIngredient(request);
 
@@ -264,7 +347,96 @@ class IngredientServiceTests {
         Assertions.assertEquals("kg", result.getUnits());
         Assertions.assertEquals(5.0, result.getStock());
 
-        verify(ingredientRepository, times(1)).findById(1L);
-        verify(ingredientRepository, times(1)).save(any(Ingredient.class));
+        verify(ingredientRepository, times(1)).addStock(1L, -5.0);
+        verify(ingredientRepository, times(0)).findById(1L);
+        verify(ingredientRepository, times(0)).save(any(Ingredient.class));
+    }
+
+    @Test
+    public void IngredientService_ApplyStockDeltas_ReturnIngredientList() {
+        Ingredient butter = Ingredient.builder()
+                .id(1L)
+                .name("Butter")
+                .units("kg")
+                .stock(6.0)
+                .build();
+
+        Ingredient chocolate = Ingredient.builder()
+                .id(2L)
+                .name("Chocolate")
+                .units("kg")
+                .stock(4.5)
+                .build();
+
+        when(ingredientRepository.addStock(1L, -4.0)).thenReturn(Optional.of(butter));
+        when(ingredientRepository.addStock(2L, 1.5)).thenReturn(Optional.of(chocolate));
+
+        List<Ingredient> result = ingredientService.applyStockDeltas(Map.of(2L, 1.5, 1L, -4.0));
+
+        Assertions.assertEquals(List.of(butter, chocolate), result);
+
+        verify(ingredientRepository, times(1)).addStock(1L, -4.0);
+        verify(ingredientRepository, times(1)).addStock(2L, 1.5);
+        verify(ingredientRepository, times(0)).saveAll(anyList());
+        verify(catalogCache, times(1)).evictIngredients(Set.of(1L, 2L));
+
+        Assertions.assertEquals(4.0, meterRegistry.get(StockMetrics.METRIC_NAME).tags("ingredient", "1", "direction", "consumed").counter().count());
+        Assertions.assertEquals(1.5, meterRegistry.get(StockMetrics.METRIC_NAME).tags("ingredient", "2", "direction", "added").counter().count());
+    }
+
+    @Test
+    public void IngredientService_ApplyStockDeltas_ReturnIngredientNotFoundException() {
+        when(ingredientRepository.addStock(1L, -4.0)).thenReturn(Optional.of(ingredient));
+        when(ingredientRepository.addStock(2L, 1.5)).thenReturn(Optional.empty());
+
+        Assertions.assertThrows(IngredientNotFoundException.class, () -> ingredientService.applyStockDeltas(Map.of(1L, -4.0, 2L, 1.5)));
+
+        verify(ingredientRepository, times(1)).addStock(2L, 1.5);
+    }
+
+    @Test
+    public void IngredientService_AddStockWithLedger_ReturnLedgerIngredient() {
+        IngredientStockRequest request = IngredientStockRequest.builder()
+                .ingredientId(1L)
+                .stock(2.0)
+                .build();
+
+        when(stockLedger.isEnabled()).thenReturn(true);
+        when(stockLedger.apply(1L, 2.0)).thenReturn(ingredient);
+
+        Ingredient result = ingredientService.addStockToIngredient(request);
+
+        Assertions.assertEquals(ingredient, result);
+
+        verify(ingredientRepository, times(0)).addStock(anyLong(), anyDouble());
+        verify(outboxWriter, never()).append(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void IngredientService_CreateBatch_ReturnPerItemResults() {
+        IngredientRequest valid = IngredientRequest.builder()
+                .name("Butter")
+                .units("kg")
+                .stock(10.0)
+                .build();
+        IngredientRequest invalid = IngredientRequest.builder()
+                .units("kg")
+                .stock(10.0)
+                .build();
+
+        ConstraintViolation<IngredientRequest> violation = mock(ConstraintViolation.class);
+        Path path = mock(Path.class);
+        when(path.toString()).thenReturn("name");
+        when(violation.getPropertyPath()).thenReturn(path);
+        when(violation.getMessage()).thenReturn("must not be blank");
+        when(validator.validate(invalid)).thenReturn(Set.of(violation));
+
+        List<BatchResult<Ingredient>> result = ingredientService.createIngredients(List.of(valid, invalid));
+
+        Assertions.assertTrue(result.get(0).isCreated());
+        Assertions.assertEquals("Butter", result.get(0).getItem().getName());
+        Assertions.assertEquals("name must not be blank", result.get(1).getError());
+
+        verify(ingredientRepository, times(1)).saveAll(List.of(result.get(0).getItem()));
     }
-}
\ No newline at end of file
+}
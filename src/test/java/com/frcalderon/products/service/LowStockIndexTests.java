@@ -0,0 +1,106 @@
+package com.frcalderon.products.service;
+
+import com.frcalderon.products.model.Ingredient;
+import com.frcalderon.products.model.LowStockIngredient;
+import com.frcalderon.products.repository.IngredientRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+class LowStockIndexTests {
+
+    @Mock
+    private IngredientRepository ingredientRepository;
+
+    @Mock
+    private StockLedger stockLedger;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private LowStockIndex lowStockIndex;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+
+        when(ingredientRepository.findAllStockLevels()).thenReturn(List.of(
+                new LowStockIngredient(1L, "Butter", "kg", 1.0, 2.0, 1L),
+                new LowStockIngredient(2L, "Sugar", "kg", 5.0, 2.0, 1L)
+        ));
+
+        lowStockIndex.reload();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    public void LowStockIndex_Reload_IndexLowStockWithoutEvents() {
+        List<LowStockIngredient> result = lowStockIndex.getLowStock();
+
+        Assertions.assertEquals(1, result.size());
+        Assertions.assertEquals(1L, result.get(0).getIngredientId());
+
+        verify(eventPublisher, times(0)).publishEvent(any(Object.class));
+    }
+
+    @Test
+    public void LowStockIndex_Update_PublishTransitions() {
+        lowStockIndex.update(Ingredient.builder().id(2L).version(2L).name("Sugar").units("kg").stock(1.5).reorderThreshold(2.0).build());
+        lowStockIndex.update(Ingredient.builder().id(1L).version(2L).name("Butter").units("kg").stock(3.0).reorderThreshold(2.0).build());
+
+        Assertions.assertEquals(List.of(2L), lowStockIndex.getLowStock().stream().map(LowStockIngredient::getIngredientId).toList());
+
+        ArgumentCaptor<StockThresholdCrossedEvent> events = ArgumentCaptor.forClass(StockThresholdCrossedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        Assertions.assertTrue(events.getAllValues().get(0).isBelowThreshold());
+        Assertions.assertFalse(events.getAllValues().get(1).isBelowThreshold());
+    }
+
+    @Test
+    public void LowStockIndex_Update_IgnoreOlderVersion() {
+        lowStockIndex.update(Ingredient.builder().id(2L).version(3L).name("Sugar").units("kg").stock(1.5).reorderThreshold(2.0).build());
+        lowStockIndex.update(Ingredient.builder().id(2L).version(2L).name("Sugar").units("kg").stock(4.0).reorderThreshold(2.0).build());
+
+        Assertions.assertEquals(List.of(1L, 2L), lowStockIndex.getLowStock().stream().map(LowStockIngredient::getIngredientId).toList());
+        verify(eventPublisher, times(1)).publishEvent(any(StockThresholdCrossedEvent.class));
+    }
+
+    @Test
+    public void LowStockIndex_Reload_IndexCrossingsFromOtherInstancesWithoutEvents() {
+        when(ingredientRepository.findAllStockLevels()).thenReturn(List.of(
+                new LowStockIngredient(1L, "Butter", "kg", 3.0, 2.0, 2L),
+                new LowStockIngredient(2L, "Sugar", "kg", 1.0, 2.0, 2L)
+        ));
+
+        lowStockIndex.reload();
+
+        Assertions.assertEquals(List.of(2L), lowStockIndex.getLowStock().stream().map(LowStockIngredient::getIngredientId).toList());
+        verify(eventPublisher, times(0)).publishEvent(any(Object.class));
+    }
+
+    @Test
+    public void LowStockIndex_Remove_DropFromLowStock() {
+        lowStockIndex.remove(1L);
+        lowStockIndex.update(Ingredient.builder().id(1L).version(2L).name("Butter").units("kg").stock(1.0).reorderThreshold(2.0).build());
+
+        Assertions.assertTrue(lowStockIndex.getLowStock().isEmpty());
+        verify(eventPublisher, times(0)).publishEvent(any(Object.class));
+    }
+}
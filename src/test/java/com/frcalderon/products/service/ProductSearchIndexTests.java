@@ -0,0 +1,99 @@
+package com.frcalderon.products.service;
+
+import com.frcalderon.products.model.Product;
+import com.frcalderon.products.model.ProductSearchDocument;
+import com.frcalderon.products.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+class ProductSearchIndexTests {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @InjectMocks
+    private ProductSearchIndex productSearchIndex;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+
+        when(productRepository.findAllSearchDocuments()).thenReturn(List.of(
+                new ProductSearchDocument(1L, "Tarta de limón", "Bizcocho con crema de limón", 4.5),
+                new ProductSearchDocument(2L, "Lotus cheesecake", "Handmade Lotus cheesecake", 5.0),
+                new ProductSearchDocument(3L, "Bizcocho de chocolate", "Con cobertura de limón y chocolate negro", 3.0)
+        ));
+
+        productSearchIndex.reload();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    public void ProductSearchIndex_Search_MatchAccentFoldedPrefixes() {
+        List<ProductSearchResult> results = productSearchIndex.search("LIMO", 10);
+
+        Assertions.assertEquals(List.of(1L, 3L), results.stream().map(ProductSearchResult::getId).toList());
+    }
+
+    @Test
+    public void ProductSearchIndex_Search_RankNameMatchesAboveDescriptionMatches() {
+        List<ProductSearchResult> results = productSearchIndex.search("bizcocho", 10);
+
+        Assertions.assertEquals(List.of(3L, 1L), results.stream().map(ProductSearchResult::getId).toList());
+        Assertions.assertTrue(results.get(0).getScore() > results.get(1).getScore());
+    }
+
+    @Test
+    public void ProductSearchIndex_Search_RequireEveryTerm() {
+        List<ProductSearchResult> results = productSearchIndex.search("chocolate limón", 10);
+
+        Assertions.assertEquals(List.of(3L), results.stream().map(ProductSearchResult::getId).toList());
+        Assertions.assertTrue(productSearchIndex.search("chocolate lotus", 10).isEmpty());
+        Assertions.assertTrue(productSearchIndex.search(" ,. ", 10).isEmpty());
+    }
+
+    @Test
+    public void ProductSearchIndex_Search_ApplyLimit() {
+        Assertions.assertEquals(1, productSearchIndex.search("limon", 1).size());
+    }
+
+    @Test
+    public void ProductSearchIndex_PutAndRemove_UpdateIndex() {
+        productSearchIndex.put(Product.builder().id(2L).name("Tarta de queso").description("Tarta de queso al horno").price(5.0).build());
+        productSearchIndex.put(Product.builder().id(4L).name("Tartaleta de frutas").description(null).price(2.5).build());
+        productSearchIndex.remove(1L);
+
+        Assertions.assertTrue(productSearchIndex.search("lotus", 10).isEmpty());
+        Assertions.assertEquals(List.of(2L, 4L), productSearchIndex.search("tarta", 10).stream().map(ProductSearchResult::getId).toList());
+        Assertions.assertEquals(3, productSearchIndex.size());
+    }
+
+    @Test
+    public void ProductSearchIndex_Reload_KeepWritesNewerThanSnapshot() {
+        when(productRepository.findAllSearchDocuments()).thenAnswer(invocation -> {
+            productSearchIndex.put(Product.builder().id(5L).name("Croissant").description("Croissant de mantequilla").price(1.5).build());
+            return List.of(new ProductSearchDocument(1L, "Tarta de limón", "Bizcocho con crema de limón", 4.5));
+        });
+
+        productSearchIndex.reload();
+
+        Assertions.assertEquals(List.of(5L), productSearchIndex.search("croissant", 10).stream().map(ProductSearchResult::getId).toList());
+        Assertions.assertTrue(productSearchIndex.search("lotus", 10).isEmpty());
+        Assertions.assertEquals(2, productSearchIndex.size());
+    }
+}
@@ -1,16 +1,23 @@
 package com.frcalderon.products.service;
 
-import com.frcalderon.products.controller.dto.IngredientStockRequest;
 import com.frcalderon.products.controller.dto.ManageProductsRequest;
 import com.frcalderon.products.controller.dto.ProductIngredientRequest;
 import com.frcalderon.products.controller.dto.ProductRequest;
+import com.frcalderon.products.exceptions.IngredientNotFoundException;
 import com.frcalderon.products.exceptions.ProductNotFoundException;
+import com.frcalderon.products.model.AggregateType;
+import com.frcalderon.products.model.CatalogEntityType;
 import com.frcalderon.products.model.Ingredient;
 import com.frcalderon.products.model.Product;
 import com.frcalderon.products.model.ProductIngredient;
+import com.frcalderon.products.model.RecipeLine;
+import com.frcalderon.products.model.StockMovementReason;
+import com.frcalderon.products.outbox.OutboxWriter;
 import com.frcalderon.products.repository.IngredientRepository;
 import com.frcalderon.products.repository.ProductIngredientRepository;
 import com.frcalderon.products.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -18,11 +25,18 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.mockito.Mockito.*;
 
@@ -40,6 +54,27 @@ class ProductServiceTests {
     @Mock
     private IngredientService ingredientService;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private RecipeIndex recipeIndex;
+
+    @Mock
+    private Validator validator;
+
+    @Mock
+    private StockMovementRecorder stockMovementRecorder;
+
+    @Mock
+    private OutboxWriter outboxWriter;
+
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @Mock
+    private CatalogChangeService catalogChangeService;
+
     @InjectMocks
     private ProductService productService;
 
@@ -94,35 +129,72 @@ class ProductServiceTests {
     }
 
     @Test
-    public void ProductService_GetAll_ReturnProductsList() {
-        when(productRepository.findAll()).thenReturn(productList);
+    public void ProductService_GetAll_ReturnProductsSlice() {
+        when(productRepository.findIdsByIdGreaterThan(eq(0L), any(Pageable.class))).thenReturn(new SliceImpl<>(List.of(1L)));
+        when(productRepository.findAllWithIngredientsByIdIn(List.of(1L))).thenReturn(productList);
+
+        Slice<Product> result = productService.getAllProducts(0L, 100);
+
+        Assertions.assertEquals(1, result.getNumberOfElements());
+        Assertions.assertEquals(product, result.getContent().get(0));
+        Assertions.assertFalse(result.hasNext());
+
+        verify(productRepository, times(1)).findIdsByIdGreaterThan(0L, PageRequest.of(0, 100, Sort.by("id")));
+        verify(productRepository, times(1)).findAllWithIngredientsByIdIn(List.of(1L));
+        verify(productRepository, times(0)).findAll();
+    }
+
+    @Test
+    public void ProductService_GetAll_ReturnEmptySliceWithoutLoadingProducts() {
+        when(productRepository.findIdsByIdGreaterThan(eq(5L), any(Pageable.class))).thenReturn(new SliceImpl<>(Collections.emptyList()));
 
-        List<Product> result = productService.getAllProducts();
+        Slice<Product> result = productService.getAllProducts(5L, 100);
 
-        Assertions.assertEquals(1, result.size());
-        Assertions.assertEquals(product, result.get(0));
+        Assertions.assertTrue(result.isEmpty());
 
-        verify(productRepository, times(1)).findAll();
+        verify(productRepository, times(0)).findAllWithIngredientsByIdIn(anyCollection());
+    }
+
+    @Test
+    public void ProductService_GetAll_ClampPageSize() {
+        when(productRepository.findIdsByIdGreaterThan(eq(0L), any(Pageable.class))).thenReturn(new SliceImpl<>(Collections.emptyList()));
+
+        productService.getAllProducts(0L, 100000);
+
+        verify(productRepository, times(1)).findIdsByIdGreaterThan(0L, PageRequest.of(0, 500, Sort.by("id")));
     }
 
     @Test
     public void ProductService_FindById_ReturnProduct() {
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.findByIdWithIngredients(1L)).thenReturn(Optional.of(product));
 
         Product result = productService.getProduct(1L);
 
         Assertions.assertEquals(product, result);
 
-        verify(productRepository, times(1)).findById(1L);
+        verify(productRepository, times(1)).findByIdWithIngredients(1L);
     }
 
     @Test
     public void ProductService_FindById_ReturnProductNotFoundException() {
-        when(productRepository.findById(2L)).thenReturn(Optional.empty());
+        when(productRepository.findByIdWithIngredients(2L)).thenReturn(Optional.empty());
 
         Assertions.assertThrows(ProductNotFoundException.class, () -> productService.getProduct(2L));
 
-        verify(productRepository, times(1)).findById(2L);
+        verify(productRepository, times(1)).findByIdWithIngredients(2L);
+    }
+
+    @Test
+    public void ProductService_Export_ConsumeAndDetachEveryProduct() {
+        when(productRepository.streamAllWithIngredients()).thenReturn(productList.stream());
+
+        List<Product> exported = new ArrayList<>();
+        productService.exportProducts(exported::add);
+
+        Assertions.assertEquals(productList, exported);
+
+        verify(entityManager, times(1)).detach(product);
+        verify(entityManager, times(1)).detach(productIngredient);
     }
 
     @Test
@@ -152,11 +224,9 @@ class ProductServiceTests {
                 .quantity(1.5)
                 .build();
 
-        when(ingredientRepository.existsById(ingredient.getId())).thenReturn(true);
+        when(ingredientRepository.findAllById(Set.of(ingredient.getId()))).thenReturn(List.of(ingredient));
         when(productRepository.save(any(Product.class))).thenReturn(newProduct);
-        when(ingredientRepository.findById(ingredient.getId())).thenReturn(Optional.of(ingredient));
-        when(productIngredientRepository.save(any(ProductIngredient.class))).thenReturn(newProductIngredient);
-        when(productRepository.findById(2L)).thenReturn(Optional.of(newProduct));
+        when(productIngredientRepository.saveAll(anyList())).thenReturn(List.of(newProductIngredient));
 
         Product result = productService.createProduct(request);
 
@@ -165,7 +235,54 @@ class ProductServiceTests {
         Assertions.assertEquals("New product description", result.getDescription());
         Assertions.assertEquals(5.0, result.getPrice());
 
+        Assertions.assertEquals(List.of(newProductIngredient), result.getIngredients());
+
+        verify(productRepository, times(1)).save(any(Product.class));
+        verify(productIngredientRepository, times(1)).saveAll(anyList());
+        verify(recipeIndex, times(1)).put(2L, new Recipe(new long[]{1L}, new double[]{1.5}));
+    }
+
+    @Test
+    public void ProductService_Create_ReturnIngredientNotFoundException() {
+        ProductRequest request = ProductRequest.builder()
+                .name("New Product")
+                .productIngredientList(List.of(
+                        ProductIngredientRequest.builder().ingredientId(ingredient.getId()).quantity(1.5).build(),
+                        ProductIngredientRequest.builder().ingredientId(99L).quantity(1.0).build()
+                ))
+                .build();
+
+        when(ingredientRepository.findAllById(Set.of(ingredient.getId(), 99L))).thenReturn(List.of(ingredient));
+
+        Assertions.assertThrows(IngredientNotFoundException.class, () -> productService.createProduct(request));
+
+        verify(productRepository, times(0)).save(any(Product.class));
+    }
+
+    @Test
+    public void ProductService_CreateBatch_ReturnPerItemResults() {
+        ProductRequest valid = ProductRequest.builder()
+                .name("New Product")
+                .productIngredientList(List.of(ProductIngredientRequest.builder().ingredientId(ingredient.getId()).quantity(1.5).build()))
+                .build();
+        ProductRequest unknownIngredient = ProductRequest.builder()
+                .name("Other Product")
+                .productIngredientList(List.of(ProductIngredientRequest.builder().ingredientId(99L).quantity(1.0).build()))
+                .build();
+
+        when(ingredientRepository.findAllById(Set.of(ingredient.getId(), 99L))).thenReturn(List.of(ingredient));
+        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<BatchResult<Product>> result = productService.createProducts(List.of(valid, unknownIngredient));
+
+        Assertions.assertTrue(result.get(0).isCreated());
+        Assertions.assertEquals("New Product", result.get(0).getItem().getName());
+        Assertions.assertFalse(result.get(1).isCreated());
+        Assertions.assertEquals("Ingredient not found", result.get(1).getError());
+
+        verify(ingredientRepository, times(1)).findAllById(anyIterable());
         verify(productRepository, times(1)).save(any(Product.class));
+        verify(productIngredientRepository, times(1)).saveAll(anyList());
     }
 
     @Test
@@ -196,11 +313,9 @@ class ProductServiceTests {
                 .build();
 
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        when(ingredientRepository.existsById(ingredient.getId())).thenReturn(true);
-        when(productRepository.save(any(Product.class))).thenReturn(updatedProduct);
-        when(ingredientRepository.findById(ingredient.getId())).thenReturn(Optional.of(ingredient));
-        when(productIngredientRepository.save(any(ProductIngredient.class))).thenReturn(newProductIngredient);
-        when(productRepository.findById(1L)).thenReturn(Optional.of(updatedProduct));
+        when(ingredientRepository.findAllById(Set.of(ingredient.getId()))).thenReturn(List.of(ingredient));
+        when(productRepository.saveAndFlush(any(Product.class))).thenReturn(updatedProduct);
+        when(productIngredientRepository.saveAll(anyList())).thenReturn(List.of(newProductIngredient));
 
         Product result = productService.updateProduct(1L, request);
 
@@ -209,8 +324,12 @@ class ProductServiceTests {
         Assertions.assertEquals("Updated product description", result.getDescription());
         Assertions.assertEquals(5.0, result.getPrice());
 
-        verify(productRepository, times(2)).findById(1L);
-        verify(productRepository, times(1)).save(any(Product.class));
+        Assertions.assertEquals(List.of(newProductIngredient), result.getIngredients());
+
+        verify(productRepository, times(1)).findById(1L);
+        verify(productRepository, times(1)).saveAndFlush(any(Product.class));
+        verify(productIngredientRepository, times(1)).saveAll(anyList());
+        verify(recipeIndex, times(1)).put(1L, new Recipe(new long[]{1L}, new double[]{1.5}));
     }
 
     @Test
@@ -236,6 +355,10 @@ class ProductServiceTests {
 
         verify(productRepository, times(1)).existsById(1L);
         verify(productRepository, times(1)).deleteById(1L);
+        verify(recipeIndex, times(1)).remove(1L);
+        verify(outboxWriter, times(1)).appendDeleted(AggregateType.PRODUCT, 1L);
+        verify(catalogChangeService, times(1)).recordRecipeDeleted(1L);
+        verify(catalogChangeService, times(1)).recordDeleted(CatalogEntityType.PRODUCT, 1L);
     }
 
     @Test
@@ -257,19 +380,45 @@ class ProductServiceTests {
                         .build()
         );
 
-        IngredientStockRequest ingredientStockRequest = IngredientStockRequest.builder()
-                .ingredientId(1L)
-                .stock(2 * productIngredient.getQuantity())
-                .build();
+        when(productRepository.findIdsByIdIn(Set.of(1L))).thenReturn(List.of(1L));
+        when(productIngredientRepository.findRecipeLinesByProductIdIn(Set.of(1L))).thenReturn(List.of(
+                new RecipeLine(1L, ingredient.getId(), productIngredient.getQuantity())
+        ));
 
-        when(productRepository.existsById(1L)).thenReturn(true);
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        productService.addProducts(addProductsRequest);
+
+        verify(recipeIndex, times(0)).getRecipes(anyCollection());
+        verify(productRepository, times(0)).findById(1L);
+        verify(ingredientService, times(1)).applyStockDeltas(Map.of(1L, 2 * productIngredient.getQuantity()));
+    }
+
+    @Test
+    public void ProductService_AddProducts_AggregateRepeatedProductsAndIngredients() {
+        List<ManageProductsRequest> addProductsRequest = List.of(
+                ManageProductsRequest.builder()
+                        .productId(1L)
+                        .quantity(2)
+                        .build(),
+                ManageProductsRequest.builder()
+                        .productId(2L)
+                        .quantity(1)
+                        .build(),
+                ManageProductsRequest.builder()
+                        .productId(1L)
+                        .quantity(3)
+                        .build()
+        );
+
+        when(productRepository.findIdsByIdIn(Set.of(1L, 2L))).thenReturn(List.of(1L, 2L));
+        when(productIngredientRepository.findRecipeLinesByProductIdIn(Set.of(1L, 2L))).thenReturn(List.of(
+                new RecipeLine(1L, 1L, 2.0),
+                new RecipeLine(1L, 2L, 0.5),
+                new RecipeLine(2L, 1L, 1.0)
+        ));
 
         productService.addProducts(addProductsRequest);
 
-        verify(productRepository, times(1)).existsById(1L);
-        verify(productRepository, times(1)).findById(1L);
-        verify(ingredientService, times(1)).addStockToIngredient(ingredientStockRequest);
+        verify(ingredientService, times(1)).applyStockDeltas(Map.of(1L, 11.0, 2L, 2.5));
     }
 
     @Test
@@ -281,18 +430,13 @@ class ProductServiceTests {
                         .build()
         );
 
-        IngredientStockRequest ingredientStockRequest = IngredientStockRequest.builder()
-                .ingredientId(2L)
-                .stock(2 * productIngredient.getQuantity())
-                .build();
-
-        when(productRepository.existsById(2L)).thenReturn(false);
+        when(productRepository.findIdsByIdIn(Set.of(2L))).thenReturn(Collections.emptyList());
+        when(productIngredientRepository.findRecipeLinesByProductIdIn(Set.of(2L))).thenReturn(Collections.emptyList());
 
         Assertions.assertThrows(ProductNotFoundException.class, () -> productService.addProducts(addProductsRequest));
 
-        verify(productRepository, times(1)).existsById(2L);
-        verify(productRepository, times(0)).findById(2L);
-        verify(ingredientService, times(0)).addStockToIngredient(ingredientStockRequest);
+        verify(productRepository, times(1)).findIdsByIdIn(Set.of(2L));
+        verify(ingredientService, times(0)).applyStockDeltas(anyMap());
     }
 
     @Test
@@ -304,19 +448,19 @@ class ProductServiceTests {
                         .build()
         );
 
-        IngredientStockRequest ingredientStockRequest = IngredientStockRequest.builder()
-                .ingredientId(1L)
-                .stock(2 * productIngredient.getQuantity())
-                .build();
-
-        when(productRepository.existsById(1L)).thenReturn(true);
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.findIdsByIdIn(Set.of(1L))).thenReturn(List.of(1L));
+        when(productIngredientRepository.findRecipeLinesByProductIdIn(Set.of(1L))).thenReturn(List.of(
+                new RecipeLine(1L, ingredient.getId(), productIngredient.getQuantity())
+        ));
 
         productService.consumeProducts(consumeProductsRequest);
 
-        verify(productRepository, times(1)).existsById(1L);
-        verify(productRepository, times(1)).findById(1L);
-        verify(ingredientService, times(1)).consumeStockFromIngredient(ingredientStockRequest);
+        verify(recipeIndex, times(0)).getRecipes(anyCollection());
+        verify(productRepository, times(0)).findById(1L);
+        verify(ingredientService, times(1)).applyStockDeltas(Map.of(1L, -2 * productIngredient.getQuantity()));
+        verify(stockMovementRecorder, times(1)).record(List.of(
+                StockMovementRecorder.movement(1L, -2 * productIngredient.getQuantity(), StockMovementReason.PRODUCT_CONSUMED, 1L)
+        ));
     }
 
     @Test
@@ -328,17 +472,12 @@ class ProductServiceTests {
                         .build()
         );
 
-        IngredientStockRequest ingredientStockRequest = IngredientStockRequest.builder()
-                .ingredientId(2L)
-                .stock(2 * productIngredient.getQuantity())
-                .build();
-
-        when(productRepository.existsById(2L)).thenReturn(false);
+        when(productRepository.findIdsByIdIn(Set.of(2L))).thenReturn(Collections.emptyList());
+        when(productIngredientRepository.findRecipeLinesByProductIdIn(Set.of(2L))).thenReturn(Collections.emptyList());
 
         Assertions.assertThrows(ProductNotFoundException.class, () -> productService.consumeProducts(consumeProductsRequest));
 
-        verify(productRepository, times(1)).existsById(2L);
-        verify(productRepository, times(0)).findById(2L);
-        verify(ingredientService, times(0)).consumeStockFromIngredient(ingredientStockRequest);
+        verify(productRepository, times(1)).findIdsByIdIn(Set.of(2L));
+        verify(ingredientService, times(0)).applyStockDeltas(anyMap());
     }
-}
\ No newline at end of file
+}
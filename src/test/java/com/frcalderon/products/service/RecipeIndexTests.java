@@ -0,0 +1,146 @@
+package com.frcalderon.products.service;
+
+import com.frcalderon.products.model.IngredientUsage;
+import com.frcalderon.products.model.RecipeLine;
+import com.frcalderon.products.repository.ProductIngredientRepository;
+import com.frcalderon.products.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.*;
+
+class RecipeIndexTests {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductIngredientRepository productIngredientRepository;
+
+    @InjectMocks
+    private RecipeIndex recipeIndex;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+
+        when(productRepository.findAllIds()).thenReturn(List.of(1L, 2L));
+        when(productIngredientRepository.findAllRecipeLines()).thenReturn(List.of(
+                RecipeLine.builder().productId(1L).ingredientId(10L).quantity(0.5).build(),
+                RecipeLine.builder().productId(1L).ingredientId(11L).quantity(2.0).build()
+        ));
+
+        recipeIndex.reload();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    public void RecipeIndex_GetRecipes_ReturnIndexedRecipesWithoutQueries() {
+        Map<Long, Recipe> result = recipeIndex.getRecipes(List.of(1L, 2L));
+
+        Assertions.assertEquals(new Recipe(new long[]{10L, 11L}, new double[]{0.5, 2.0}), result.get(1L));
+        Assertions.assertEquals(Recipe.EMPTY, result.get(2L));
+
+        verify(productRepository, times(0)).findIdsByIdIn(anyCollection());
+        verify(productIngredientRepository, times(0)).findRecipeLinesByProductIdIn(anyCollection());
+    }
+
+    @Test
+    public void RecipeIndex_GetRecipes_LoadMissingProductsFromDatabase() {
+        when(productRepository.findIdsByIdIn(List.of(3L, 4L))).thenReturn(List.of(3L));
+        when(productIngredientRepository.findRecipeLinesByProductIdIn(List.of(3L, 4L))).thenReturn(List.of(
+                RecipeLine.builder().productId(3L).ingredientId(10L).quantity(1.0).build()
+        ));
+
+        Map<Long, Recipe> result = recipeIndex.getRecipes(List.of(1L, 3L, 4L));
+
+        Assertions.assertEquals(2, result.size());
+        Assertions.assertEquals(new Recipe(new long[]{10L}, new double[]{1.0}), result.get(3L));
+        Assertions.assertFalse(result.containsKey(4L));
+
+        recipeIndex.getRecipes(List.of(3L));
+
+        verify(productRepository, times(1)).findIdsByIdIn(anyCollection());
+    }
+
+    @Test
+    public void RecipeIndex_Put_ReplaceRecipe() {
+        Recipe recipe = new Recipe(new long[]{12L}, new double[]{3.0});
+
+        recipeIndex.put(1L, recipe);
+
+        Assertions.assertEquals(recipe, recipeIndex.getRecipes(List.of(1L)).get(1L));
+    }
+
+    @Test
+    public void RecipeIndex_Remove_ProductIsNoLongerIndexed() {
+        recipeIndex.remove(1L);
+
+        Assertions.assertTrue(recipeIndex.getRecipes(List.of(1L)).isEmpty());
+        Assertions.assertFalse(recipeIndex.getAllRecipes().containsKey(1L));
+    }
+
+    @Test
+    public void RecipeIndex_Reload_DropProductsMissingFromSnapshot() {
+        Recipe recipe = new Recipe(new long[]{12L}, new double[]{3.0});
+        recipeIndex.put(5L, recipe);
+
+        when(productRepository.findAllIds()).thenReturn(List.of(1L));
+
+        recipeIndex.reload();
+
+        Map<Long, Recipe> result = recipeIndex.getAllRecipes();
+
+        Assertions.assertTrue(result.containsKey(1L));
+        Assertions.assertFalse(result.containsKey(2L));
+        Assertions.assertFalse(result.containsKey(5L));
+    }
+
+    @Test
+    public void RecipeIndex_GetUsages_ReturnProductsUsingIngredient() {
+        recipeIndex.put(2L, new Recipe(new long[]{11L, 11L}, new double[]{1.0, 0.5}));
+
+        Assertions.assertEquals(
+                List.of(new IngredientUsage(1L, 2.0), new IngredientUsage(2L, 1.5)),
+                recipeIndex.getUsages(11L)
+        );
+        Assertions.assertEquals(List.of(new IngredientUsage(1L, 0.5)), recipeIndex.getUsages(10L));
+        Assertions.assertTrue(recipeIndex.getUsages(12L).isEmpty());
+    }
+
+    @Test
+    public void RecipeIndex_GetUsages_FollowRecipeChanges() {
+        recipeIndex.put(1L, new Recipe(new long[]{12L}, new double[]{3.0}));
+
+        Assertions.assertTrue(recipeIndex.getUsages(10L).isEmpty());
+        Assertions.assertEquals(List.of(new IngredientUsage(1L, 3.0)), recipeIndex.getUsages(12L));
+
+        recipeIndex.remove(1L);
+
+        Assertions.assertTrue(recipeIndex.getUsages(12L).isEmpty());
+    }
+
+    @Test
+    public void RecipeIndex_Reload_DropUsagesOfProductsMissingFromSnapshot() {
+        when(productRepository.findAllIds()).thenReturn(List.of(2L));
+
+        recipeIndex.reload();
+
+        Assertions.assertTrue(recipeIndex.getUsages(10L).isEmpty());
+        Assertions.assertTrue(recipeIndex.getUsages(11L).isEmpty());
+    }
+}
@@ -0,0 +1,47 @@
+package com.frcalderon.products.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+class StockDeltaAccumulatorTests {
+
+    @Test
+    public void StockDeltaAccumulator_Add_SumDeltasPerIngredient() {
+        StockDeltaAccumulator stockDeltas = new StockDeltaAccumulator();
+
+        stockDeltas.add(1L, 2.0);
+        stockDeltas.add(2L, -0.5);
+        stockDeltas.add(1L, 3.0);
+
+        Assertions.assertEquals(2, stockDeltas.size());
+        Assertions.assertEquals(Map.of(1L, 5.0, 2L, -0.5), stockDeltas.toMap());
+    }
+
+    @Test
+    public void StockDeltaAccumulator_Add_GrowBeyondInitialCapacity() {
+        StockDeltaAccumulator stockDeltas = new StockDeltaAccumulator(2);
+
+        for (long ingredientId = 0; ingredientId < 1000; ingredientId++) {
+            stockDeltas.add(ingredientId, 1.0);
+            stockDeltas.add(ingredientId, ingredientId);
+        }
+
+        Map<Long, Double> result = stockDeltas.toMap();
+
+        Assertions.assertEquals(1000, result.size());
+        Assertions.assertEquals(1000.0, result.get(999L));
+        Assertions.assertEquals(1.0, result.get(0L));
+    }
+
+    @Test
+    public void Recipe_Accumulate_MultiplyQuantitiesByUnits() {
+        Recipe recipe = new Recipe(new long[]{1L, 2L}, new double[]{0.5, 0.25});
+        StockDeltaAccumulator stockDeltas = new StockDeltaAccumulator();
+
+        recipe.accumulate(-4, stockDeltas);
+
+        Assertions.assertEquals(Map.of(1L, -2.0, 2L, -1.0), stockDeltas.toMap());
+    }
+}
@@ -0,0 +1,195 @@
+package com.frcalderon.products.service;
+
+import com.frcalderon.products.config.StockLedgerProperties;
+import com.frcalderon.products.exceptions.IngredientNotFoundException;
+import com.frcalderon.products.model.AggregateType;
+import com.frcalderon.products.model.ChangeType;
+import com.frcalderon.products.model.Ingredient;
+import com.frcalderon.products.outbox.OutboxWriter;
+import com.frcalderon.products.repository.IngredientRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.mockito.Mockito.*;
+
+class StockLedgerTests {
+
+    @Mock
+    private IngredientRepository ingredientRepository;
+
+    @Mock
+    private OutboxWriter outboxWriter;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private StockLedger stockLedger;
+
+    private AutoCloseable closeable;
+
+    private Ingredient butter;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+
+        StockLedgerProperties properties = new StockLedgerProperties();
+        properties.setEnabled(true);
+        stockLedger = new StockLedger(ingredientRepository, outboxWriter, transactionManager, new SimpleMeterRegistry(), properties);
+
+        butter = Ingredient.builder()
+                .id(1L)
+                .name("Butter")
+                .units("kg")
+                .stock(10.0)
+                .build();
+
+        when(ingredientRepository.findById(1L)).thenReturn(Optional.of(butter));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    public void StockLedger_Apply_ReturnStockWithoutWriting() {
+        stockLedger.apply(1L, -4.0);
+        Ingredient result = stockLedger.apply(1L, 1.5);
+
+        Assertions.assertEquals(7.5, result.getStock());
+        Assertions.assertEquals(1, stockLedger.getPendingIngredients());
+
+        verify(ingredientRepository, times(1)).findById(1L);
+        verify(ingredientRepository, times(0)).addStock(anyLong(), anyDouble());
+    }
+
+    @Test
+    public void StockLedger_Apply_ReturnIngredientNotFoundException() {
+        when(ingredientRepository.findById(2L)).thenReturn(Optional.empty());
+
+        Assertions.assertThrows(IngredientNotFoundException.class, () -> stockLedger.apply(2L, 1.0));
+    }
+
+    @Test
+    public void StockLedger_ApplyAll_ReturnIngredientNotFoundException() {
+        when(ingredientRepository.findAllById(anyIterable())).thenReturn(List.of(butter));
+
+        Assertions.assertThrows(IngredientNotFoundException.class, () -> stockLedger.applyAll(Map.of(1L, -1.0, 2L, 1.0)));
+        Assertions.assertEquals(0, stockLedger.getPendingIngredients());
+    }
+
+    @Test
+    public void StockLedger_Flush_WriteNetDeltaOnce() {
+        when(ingredientRepository.addStock(1L, -2.5)).thenReturn(Optional.of(Ingredient.builder().id(1L).stock(7.5).build()));
+
+        stockLedger.apply(1L, -4.0);
+        stockLedger.apply(1L, 1.5);
+        stockLedger.flush();
+
+        Assertions.assertEquals(0, stockLedger.getPendingIngredients());
+        Assertions.assertEquals(7.5, stockLedger.withPendingStock(butter).getStock());
+
+        verify(ingredientRepository, times(1)).addStock(1L, -2.5);
+    }
+
+    @Test
+    public void StockLedger_Flush_AppendEventWithFlushedVersion() {
+        Ingredient flushed = Ingredient.builder().id(1L).version(4L).stock(6.0).build();
+        when(ingredientRepository.addStock(1L, -4.0)).thenReturn(Optional.of(flushed));
+
+        stockLedger.apply(1L, -4.0);
+        stockLedger.flush();
+
+        verify(outboxWriter, times(1)).appendAll(eq(AggregateType.INGREDIENT), eq(ChangeType.STOCK_CHANGED), eq(List.of(flushed)), any(), any(), any());
+    }
+
+    @Test
+    public void StockLedger_FlushFailure_KeepPendingDelta() {
+        when(ingredientRepository.addStock(1L, -4.0)).thenThrow(new DataAccessResourceFailureException("down"));
+
+        stockLedger.apply(1L, -4.0);
+        stockLedger.flush();
+
+        Assertions.assertEquals(1, stockLedger.getPendingIngredients());
+        Assertions.assertEquals(6.0, stockLedger.withPendingStock(butter).getStock());
+    }
+
+    @Test
+    public void StockLedger_ApplyRolledBack_FlushWriteNothing() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            Ingredient result = stockLedger.apply(1L, -4.0);
+            Assertions.assertEquals(6.0, result.getStock());
+
+            complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        stockLedger.flush();
+
+        Assertions.assertEquals(0, stockLedger.getPendingIngredients());
+        Assertions.assertEquals(10.0, stockLedger.withPendingStock(butter).getStock());
+
+        verify(ingredientRepository, never()).addStock(anyLong(), anyDouble());
+    }
+
+    @Test
+    public void StockLedger_ApplyCommitted_FlushWriteDelta() {
+        when(ingredientRepository.addStock(1L, -4.0)).thenReturn(Optional.of(Ingredient.builder().id(1L).stock(6.0).build()));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            stockLedger.apply(1L, -4.0);
+            Assertions.assertEquals(0, stockLedger.getPendingIngredients());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            complete(TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        Assertions.assertEquals(1, stockLedger.getPendingIngredients());
+
+        stockLedger.flush();
+
+        verify(ingredientRepository, times(1)).addStock(1L, -4.0);
+    }
+
+    @Test
+    public void StockLedger_ForgetRolledBack_KeepPendingDelta() {
+        stockLedger.apply(1L, -4.0);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            stockLedger.forget(1L);
+            stockLedger.flush();
+
+            complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(ingredientRepository, never()).addStock(anyLong(), anyDouble());
+        Assertions.assertEquals(6.0, stockLedger.getStock(1L));
+        Assertions.assertEquals(1, stockLedger.getPendingIngredients());
+    }
+
+    private static void complete(int status) {
+        TransactionSynchronizationManager.getSynchronizations().forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
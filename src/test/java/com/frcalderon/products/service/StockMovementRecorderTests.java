@@ -0,0 +1,87 @@
+package com.frcalderon.products.service;
+
+import com.frcalderon.products.config.StockMovementProperties;
+import com.frcalderon.products.model.StockMovement;
+import com.frcalderon.products.model.StockMovementReason;
+import com.frcalderon.products.repository.StockMovementRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+class StockMovementRecorderTests {
+
+    @Mock
+    private StockMovementRepository stockMovementRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    public void StockMovementRecorder_Record_SaveMovementsTogether() {
+        StockMovementRecorder recorder = recorder(false);
+        List<StockMovement> movements = List.of(
+                StockMovementRecorder.movement(1L, -1.0, StockMovementReason.PRODUCT_CONSUMED, 10L),
+                StockMovementRecorder.movement(2L, -0.5, StockMovementReason.PRODUCT_CONSUMED, 10L)
+        );
+
+        recorder.record(movements);
+
+        verify(stockMovementRepository, times(1)).saveAll(movements);
+        Assertions.assertNull(movements.get(0).getCreatedAt());
+        Assertions.assertNull(movements.get(1).getCreatedAt());
+    }
+
+    @Test
+    public void StockMovementRecorder_Flush_InsertBufferedMovements() {
+        StockMovementRecorder recorder = recorder(true);
+
+        recorder.record(StockMovementRecorder.movement(1L, 2.0, StockMovementReason.ADDED));
+        recorder.record(StockMovementRecorder.movement(1L, -1.0, StockMovementReason.CONSUMED));
+
+        verify(stockMovementRepository, times(0)).saveAll(anyList());
+        Assertions.assertEquals(2, recorder.getBufferedMovements());
+
+        recorder.flush();
+
+        verify(stockMovementRepository, times(1)).saveAll(argThat(movements -> ((List<?>) movements).size() == 2));
+        Assertions.assertEquals(0, recorder.getBufferedMovements());
+    }
+
+    @Test
+    public void StockMovementRecorder_Flush_KeepMovementsWhenInsertFails() {
+        StockMovementRecorder recorder = recorder(true);
+        when(stockMovementRepository.saveAll(anyList())).thenThrow(new DataAccessResourceFailureException("down"));
+
+        recorder.record(StockMovementRecorder.movement(1L, 2.0, StockMovementReason.ADDED));
+        recorder.flush();
+
+        Assertions.assertEquals(1, recorder.getBufferedMovements());
+    }
+
+    private StockMovementRecorder recorder(boolean buffered) {
+        StockMovementProperties properties = new StockMovementProperties();
+        properties.setBuffered(buffered);
+        return new StockMovementRecorder(stockMovementRepository, transactionManager, properties);
+    }
+}
@@ -0,0 +1,124 @@
+package com.frcalderon.products.service;
+
+import com.frcalderon.products.config.StockMovementProperties;
+import com.frcalderon.products.exceptions.IngredientNotFoundException;
+import com.frcalderon.products.model.IngredientStock;
+import com.frcalderon.products.model.StockSnapshot;
+import com.frcalderon.products.repository.IngredientRepository;
+import com.frcalderon.products.repository.StockMovementRepository;
+import com.frcalderon.products.repository.StockSnapshotRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.mockito.Mockito.*;
+
+class StockMovementServiceTests {
+
+    @Mock
+    private IngredientRepository ingredientRepository;
+
+    @Mock
+    private StockMovementRepository stockMovementRepository;
+
+    @Mock
+    private StockSnapshotRepository stockSnapshotRepository;
+
+    @Mock
+    private CatalogChangeService catalogChangeService;
+
+    @Spy
+    private StockMovementProperties stockMovementProperties = new StockMovementProperties();
+
+    @InjectMocks
+    private StockMovementService stockMovementService;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    public void StockMovementService_ReplayStock_ReturnSnapshotPlusTail() {
+        when(ingredientRepository.existsById(1L)).thenReturn(true);
+        when(stockSnapshotRepository.findById(1L)).thenReturn(Optional.of(new StockSnapshot(1L, 10.0, 42L, Instant.parse("2024-01-01T00:00:00Z"))));
+        when(stockMovementRepository.sumDeltaByIngredientIdAndChangeSeqFrom(1L, 42L)).thenReturn(-2.5);
+
+        IngredientStock result = stockMovementService.replayStock(1L);
+
+        Assertions.assertEquals(new IngredientStock(1L, 7.5), result);
+    }
+
+    @Test
+    public void StockMovementService_ReplayStock_SumWholeLedgerWithoutSnapshot() {
+        when(ingredientRepository.existsById(1L)).thenReturn(true);
+        when(stockSnapshotRepository.findById(1L)).thenReturn(Optional.empty());
+        when(stockMovementRepository.sumDeltaByIngredientIdAndChangeSeqFrom(1L, 0L)).thenReturn(4.0);
+
+        IngredientStock result = stockMovementService.replayStock(1L);
+
+        Assertions.assertEquals(new IngredientStock(1L, 4.0), result);
+    }
+
+    @Test
+    public void StockMovementService_ReplayStock_IgnoreSnapshotWithoutHorizon() {
+        when(ingredientRepository.existsById(1L)).thenReturn(true);
+        when(stockSnapshotRepository.findById(1L)).thenReturn(Optional.of(new StockSnapshot(1L, 10.0, null, Instant.parse("2024-01-01T00:00:00Z"))));
+        when(stockMovementRepository.sumDeltaByIngredientIdAndChangeSeqFrom(1L, 0L)).thenReturn(4.0);
+
+        IngredientStock result = stockMovementService.replayStock(1L);
+
+        Assertions.assertEquals(new IngredientStock(1L, 4.0), result);
+    }
+
+    @Test
+    public void StockMovementService_SeedSnapshots_TakeThemAtCommitHorizon() {
+        when(catalogChangeService.isWindowed()).thenReturn(true);
+        when(catalogChangeService.visibleBefore()).thenReturn(42L);
+
+        stockMovementService.seedSnapshots();
+
+        verify(stockSnapshotRepository, times(1)).seed(42L);
+    }
+
+    @Test
+    public void StockMovementService_Snapshot_FoldUpToCommitHorizon() {
+        when(catalogChangeService.isWindowed()).thenReturn(true);
+        when(catalogChangeService.visibleBefore()).thenReturn(42L);
+
+        stockMovementService.snapshot();
+
+        verify(stockSnapshotRepository, times(1)).snapshot(42L);
+    }
+
+    @Test
+    public void StockMovementService_Snapshot_SkipWithoutChangeWindows() {
+        when(catalogChangeService.isWindowed()).thenReturn(false);
+
+        stockMovementService.snapshot();
+
+        verify(stockSnapshotRepository, never()).snapshot(anyLong());
+    }
+
+    @Test
+    public void StockMovementService_ReplayStock_ReturnIngredientNotFoundException() {
+        when(ingredientRepository.existsById(1L)).thenReturn(false);
+
+        Assertions.assertThrows(IngredientNotFoundException.class, () -> stockMovementService.replayStock(1L));
+    }
+}